@@ -0,0 +1,108 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.saul.botwallapop.config.StorageConfig;
+import com.saul.botwallapop.model.BotState;
+import com.saul.botwallapop.store.NotifiedOfferStore;
+
+/**
+ * Consulta de ofertas ya notificadas ({@link BotState#isOfferNotified}) con
+ * 10k, 1M y 10M entradas, acertando y fallando, con y sin filtro de Bloom.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx6g"})
+@State(Scope.Benchmark)
+public class BotStateBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int entries;
+
+    @Param({"false", "true"})
+    public boolean bloom;
+
+    private Path dataDir;
+    private NotifiedOfferStore store;
+    private BotState botState;
+    private String[] knownUrls;
+    private String[] unknownUrls;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dataDir = Files.createTempDirectory("botstate-bench");
+        // Se escribe el log directamente: dar de alta 10M ids uno a uno tardaría demasiado
+        long now = System.currentTimeMillis();
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("notified-offers.log"), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                out.write(Long.toString(1_000_000_000L + i));
+                out.write('\t');
+                out.write(Long.toString(now));
+                out.newLine();
+            }
+        }
+
+        StorageConfig config = new StorageConfig();
+        config.setDataDir(dataDir.toString());
+        config.setNotifiedMaxEntries(entries);
+        config.setBloomEnabled(bloom);
+        config.setBloomExpectedEntries(entries);
+        store = new NotifiedOfferStore(config, new SimpleMeterRegistry());
+        store.load();
+        botState = new BotState(store);
+
+        knownUrls = new String[PROBES];
+        unknownUrls = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            long known = 1_000_000_000L + (long) i * entries / PROBES;
+            knownUrls[i] = "https://es.wallapop.com/item/consola-nintendo-switch-" + known;
+            unknownUrls[i] = "https://es.wallapop.com/item/consola-nintendo-switch-" + (5_000_000_000L + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean lookupHit() {
+        return botState.isOfferNotified(knownUrls[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean lookupMiss() {
+        return botState.isOfferNotified(unknownUrls[next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Argumentos {@code --clave valor} (o {@code --clave=valor}) de las herramientas de este módulo. */
+final class CommandLine {
+
+    private final Map<String, List<String>> values = new HashMap<>();
+
+    CommandLine(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Argumento no válido: " + args[i]);
+            String name = args[i].substring(2);
+            String value;
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                value = name.substring(eq + 1);
+                name = name.substring(0, eq);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Falta el valor de --" + name);
+            }
+            values.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        List<String> list = values.get(name);
+        return list == null ? defaultValue : list.get(list.size() - 1);
+    }
+
+    int getInt(String name, int defaultValue) {
+        return Integer.parseInt(get(name, String.valueOf(defaultValue)));
+    }
+
+    long getLong(String name, long defaultValue) {
+        return Long.parseLong(get(name, String.valueOf(defaultValue)));
+    }
+
+    double getDouble(String name, double defaultValue) {
+        return Double.parseDouble(get(name, String.valueOf(defaultValue)));
+    }
+
+    /** Todos los valores de un argumento repetible. */
+    List<String> getAll(String name) {
+        return values.getOrDefault(name, List.of());
+    }
+}
@@ -0,0 +1,132 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Proxy que graba fixtures para {@link MockMarketplace}. Reenvía las búsquedas a
+ * Wallapop y las llamadas a Telegram, y guarda las respuestas:
+ * <ul>
+ *   <li>{@code <salida>/search/page-N.json}: cada página de resultados, en orden de llegada</li>
+ *   <li>{@code <salida>/telegram/<método>.json}: la primera respuesta de cada método</li>
+ * </ul>
+ * No se guardan las peticiones (ni el token). Las respuestas de Telegram llevan ids
+ * y nombres de chats: revisarlas antes de subirlas al repositorio.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.saul.botwallapop.benchmarks.FixtureRecorder \
+ *      --out fixtures [--port 8089] [--max-pages 20]
+ * # y el bot con:
+ * --wallapop.search.api-url=http://127.0.0.1:8089/api/v3/search --telegram.bot.api-url=http://127.0.0.1:8089/bot
+ * </pre>
+ */
+public class FixtureRecorder {
+
+    private static final String WALLAPOP_URL = "https://api.wallapop.com/api/v3/search";
+    private static final String TELEGRAM_URL = "https://api.telegram.org/bot";
+    private static final List<String> FORWARDED_HEADERS = List.of("Accept", "Accept-Language", "User-Agent",
+            "X-DeviceOS", "Content-Type");
+
+    private final Path searchDir;
+    private final Path telegramDir;
+    private final int maxPages;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private final AtomicInteger recordedPages = new AtomicInteger();
+
+    public FixtureRecorder(Path out, int maxPages) throws IOException {
+        this.searchDir = Files.createDirectories(out.resolve("search"));
+        this.telegramDir = Files.createDirectories(out.resolve("telegram"));
+        this.maxPages = maxPages;
+    }
+
+    public static void main(String[] args) throws IOException {
+        CommandLine cli = new CommandLine(args);
+        FixtureRecorder recorder = new FixtureRecorder(Paths.get(cli.get("out", "fixtures")), cli.getInt("max-pages", 20));
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", cli.getInt("port", 8089)), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/v3/search", recorder::forwardSearch);
+        server.createContext("/bot", recorder::forwardTelegram);
+        server.start();
+        System.out.println("🎙️ Grabando en " + recorder.searchDir.getParent().toAbsolutePath()
+                + " desde http://127.0.0.1:" + server.getAddress().getPort() + " (Ctrl+C para terminar)");
+    }
+
+    private void forwardSearch(HttpExchange exchange) throws IOException {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        URI target = URI.create(WALLAPOP_URL + (rawQuery != null ? "?" + rawQuery : ""));
+        forward(exchange, target, (status, body) -> {
+            if (status != 200) return;
+            int n = recordedPages.incrementAndGet();
+            if (n <= maxPages) Files.write(searchDir.resolve("page-" + n + ".json"), body);
+        });
+    }
+
+    private void forwardTelegram(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getRawPath(); // /bot<token>/<método>
+        String method = path.substring(path.lastIndexOf('/') + 1);
+        URI target = URI.create(TELEGRAM_URL + path.substring("/bot".length()));
+        forward(exchange, target, (status, body) -> {
+            Path file = telegramDir.resolve(method + ".json");
+            if (status == 200 && !Files.exists(file)) Files.write(file, body);
+        });
+    }
+
+    private void forward(HttpExchange exchange, URI target, Recording recording) throws IOException {
+        try (exchange) {
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            HttpRequest.Builder request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(90))
+                    .method(exchange.getRequestMethod(), requestBody.length > 0
+                            ? HttpRequest.BodyPublishers.ofByteArray(requestBody)
+                            : HttpRequest.BodyPublishers.noBody());
+            for (String header : FORWARDED_HEADERS) {
+                String value = exchange.getRequestHeaders().getFirst(header);
+                if (value != null) request.header(header, value);
+            }
+
+            HttpResponse<byte[]> response;
+            try {
+                response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            } catch (IOException e) {
+                System.err.println("❌ " + target.getHost() + ": " + e);
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            }
+
+            recording.record(response.statusCode(), response.body());
+            response.headers().firstValue("Content-Type")
+                    .ifPresent(type -> exchange.getResponseHeaders().set("Content-Type", type));
+            byte[] body = response.body();
+            exchange.sendResponseHeaders(response.statusCode(), body.length > 0 ? body.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Recording {
+        void record(int status, byte[] body) throws IOException;
+    }
+}
@@ -0,0 +1,223 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import com.saul.botwallapop.WallapopBotApplication;
+import com.saul.botwallapop.model.ScanReport;
+import com.saul.botwallapop.scheduler.ScanCoordinator;
+import com.saul.botwallapop.service.WallapopSearchService;
+import com.saul.botwallapop.store.OutboxStore;
+
+/**
+ * Prueba de carga de extremo a extremo sin red: levanta la aplicación real
+ * (WallapopSearchService → deduplicado → TelegramBotService) contra un
+ * {@link MockMarketplace} y lanza escaneos completos para listas de productos
+ * de distintos tamaños. Por cada tamaño informa del rendimiento (búsquedas y
+ * páginas por segundo), los percentiles de duración de escaneo y de búsqueda y
+ * los mensajes por segundo que llegan a Telegram.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dexec.args="--products 10,100,1000,10000 --scans 3"
+ * </pre>
+ *
+ * Opciones: {@code --parallelism}, {@code --latency-ms}, {@code --jitter-ms}, {@code --pages},
+ * {@code --error-rate}, {@code --churn}, {@code --telegram-latency-ms}, {@code --telegram-error-rate},
+ * {@code --fixtures <dir>} (de {@link FixtureRecorder}), {@code --drain-seconds} y
+ * {@code --prop clave=valor} (repetible) para cambiar cualquier propiedad de la aplicación.
+ */
+public class LoadDriver {
+
+    private static final String SEARCH_TIMER = "wallapop.search.duration";
+
+    public static void main(String[] args) throws Exception {
+        CommandLine cli = new CommandLine(args);
+        int[] sizes = Arrays.stream(cli.get("products", "10,100,1000,10000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int scans = cli.getInt("scans", 3);
+        int parallelism = cli.getInt("parallelism", 4);
+        MockMarketplace.Options options = new MockMarketplace.Options(
+                cli.getLong("latency-ms", 20), cli.getLong("jitter-ms", 10), cli.getInt("pages", 3),
+                cli.getDouble("error-rate", 0), cli.getDouble("churn", 0.05),
+                cli.getLong("telegram-latency-ms", 5), cli.getDouble("telegram-error-rate", 0));
+
+        String fixtures = cli.get("fixtures", null);
+        List<byte[]> pages = fixtures != null
+                ? RecordedPages.load(Paths.get(fixtures, "search")) : RecordedPages.load();
+        Map<String, byte[]> telegram = fixtures != null ? loadTelegramFixtures(Paths.get(fixtures, "telegram")) : Map.of();
+
+        System.out.printf("%8s %6s %9s %9s %9s %9s %10s %10s %9s %9s %9s %8s %9s %8s %7s%n",
+                "productos", "escan.", "esc p50 s", "esc p95 s", "esc p99 s", "esc máx s", "búsq/s", "págs/s",
+                "búsq p50", "búsq p95", "búsq p99", "nuevas", "mensajes", "msgs/s", "errores");
+        for (int size : sizes) {
+            try (MockMarketplace mock = new MockMarketplace(options, pages, telegram, Math.max(16, parallelism * 4))) {
+                Result result = run(mock, size, scans, parallelism, cli);
+                System.out.printf("%8d %6d %9.2f %9.2f %9.2f %9.2f %10.1f %10.1f %9s %9s %9s %8d %9d %8.1f %7d%n",
+                        size, scans, result.scanSeconds(0.50), result.scanSeconds(0.95), result.scanSeconds(0.99),
+                        result.scanSeconds(1.0), result.perSecond(result.stats.searches()),
+                        result.perSecond(result.stats.pages()), result.searchMs(0.5), result.searchMs(0.95),
+                        result.searchMs(0.99), result.newOffers, result.stats.messages(), result.messagesPerSecond(),
+                        result.stats.searchErrors() + result.stats.telegramErrors());
+            }
+        }
+    }
+
+    private static Result run(MockMarketplace mock, int size, int scans, int parallelism, CommandLine cli)
+            throws IOException, InterruptedException {
+        Path dataDir = Files.createTempDirectory("carga-");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(WallapopBotApplication.class)
+                .logStartupInfo(false)
+                .run(applicationArgs(mock, dataDir, size, parallelism, cli));
+        try {
+            context.getBean(WallapopSearchService.class).whenBackendReady().join();
+            ScanCoordinator coordinator = context.getBean(ScanCoordinator.class);
+            OutboxStore outbox = context.getBean(OutboxStore.class);
+
+            long[] scanNanos = new long[scans];
+            long newOffers = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < scans; i++) {
+                long scanStart = System.nanoTime();
+                ScanReport report = coordinator.requestScan("carga").join();
+                scanNanos[i] = System.nanoTime() - scanStart;
+                newOffers += report.getTotalNewOffers();
+            }
+            long scansEnd = System.nanoTime();
+            Timer searchTimer = context.getBean(MeterRegistry.class).find(SEARCH_TIMER).timer();
+            ValueAtPercentile[] searchPercentiles = searchTimer != null
+                    ? searchTimer.takeSnapshot().percentileValues() : new ValueAtPercentile[0];
+
+            // Los mensajes siguen saliendo tras el escaneo: se espera a que se confirmen todos
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(cli.getLong("drain-seconds", 60));
+            while (outbox.pendingCount() > 0 && System.nanoTime() < drainDeadline) Thread.sleep(50);
+            long end = System.nanoTime();
+            return new Result(scanNanos, scansEnd - start, end - start, newOffers, mock.stats(), searchPercentiles);
+        } finally {
+            context.close();
+            deleteRecursively(dataDir);
+        }
+    }
+
+    /** Propiedades de la aplicación para la prueba; las de {@code --prop} tienen prioridad. */
+    private static String[] applicationArgs(MockMarketplace mock, Path dataDir, int size, int parallelism,
+                                            CommandLine cli) {
+        Map<String, String> props = new LinkedHashMap<>();
+        props.put("telegram.bot.token", "0:carga");
+        props.put("telegram.bot.username", "carga");
+        props.put("telegram.bot.api-url", mock.telegramUrl());
+        // Webhook sin URL: no se registra en Telegram ni hace long polling
+        props.put("telegram.bot.mode", "webhook");
+        props.put("telegram.webhook.url", "");
+        props.put("telegram.webhook.secret-token", "carga");
+        props.put("server.port", "0");
+        props.put("spring.main.banner-mode", "off");
+        props.put("logging.level.root", "WARN");
+        props.put("logging.level.com.saul.botwallapop", "WARN");
+        props.put("management.metrics.distribution.percentiles." + SEARCH_TIMER, "0.5,0.95,0.99");
+        // Por defecto los percentiles solo cubren los últimos minutos
+        props.put("management.metrics.distribution.expiry." + SEARCH_TIMER, "1d");
+        props.put("management.metrics.distribution.buffer-length." + SEARCH_TIMER, "1");
+
+        props.put("wallapop.storage.data-dir", dataDir.toString());
+        props.put("wallapop.search.backend", "http");
+        props.put("wallapop.search.fallback-to-selenium", "false");
+        props.put("wallapop.search.api-url", mock.searchUrl());
+        props.put("wallapop.search.parallelism", String.valueOf(parallelism));
+        props.put("wallapop.search.host-min-interval-ms", "0");
+        props.put("wallapop.search.host-jitter-ms", "0");
+        props.put("wallapop.search.cache-ttl-seconds", "0");
+        // El sondeo automático no interfiere con los escaneos de la prueba
+        props.put("wallapop.polling.tick-seconds", "86400");
+
+        // Sin los límites de Telegram se mide lo que da el pipeline, no el límite de 20 mensajes/min
+        props.put("telegram.delivery.global-per-second", "100000");
+        props.put("telegram.delivery.per-chat-per-minute", "6000000");
+        props.put("telegram.delivery.per-chat-burst", "1000");
+        props.put("telegram.delivery.max-queued", "10000");
+
+        StringBuilder products = new StringBuilder();
+        for (int i = 1; i <= size; i++) {
+            if (i > 1) products.append(',');
+            products.append("articulo ").append(i).append("|100000");
+        }
+        props.put("wallapop.products", products.toString());
+
+        for (String prop : cli.getAll("prop")) {
+            int eq = prop.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("--prop espera clave=valor: " + prop);
+            props.put(prop.substring(0, eq), prop.substring(eq + 1));
+        }
+        return props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+    }
+
+    private static Map<String, byte[]> loadTelegramFixtures(Path dir) throws IOException {
+        Map<String, byte[]> fixtures = new HashMap<>();
+        if (!Files.isDirectory(dir)) return fixtures;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".json")).toList()) {
+                String name = file.getFileName().toString();
+                fixtures.put(name.substring(0, name.length() - ".json".length()), Files.readAllBytes(file));
+            }
+        }
+        return fixtures;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> {
+                try {
+                    Files.delete(f);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private record Result(long[] scanNanos, long scansNanos, long totalNanos, long newOffers,
+                          MockMarketplace.Stats stats, ValueAtPercentile[] searchPercentiles) {
+
+        // Percentil por rango más cercano: con pocos escaneos p95 y p99 son el máximo
+        double scanSeconds(double percentile) {
+            long[] sorted = scanNanos.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e9;
+        }
+
+        double perSecond(long count) {
+            return count / (scansNanos / 1e9);
+        }
+
+        double messagesPerSecond() {
+            return stats.messages() / (totalNanos / 1e9);
+        }
+
+        String searchMs(double percentile) {
+            for (ValueAtPercentile value : searchPercentiles) {
+                if (Math.abs(value.percentile() - percentile) < 1e-9) {
+                    return String.format("%.0f ms", value.value(TimeUnit.MILLISECONDS));
+                }
+            }
+            return "-";
+        }
+    }
+}
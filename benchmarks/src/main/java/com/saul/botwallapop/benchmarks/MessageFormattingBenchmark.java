@@ -0,0 +1,57 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.saul.botwallapop.model.WallapopOffer;
+
+/**
+ * {@link WallapopOffer#toTelegramMessage()}: escapado Markdown y formato de fecha,
+ * y el mismo render sobre un builder reutilizado. Con {@code -prof gc} se ve la memoria por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageFormattingBenchmark {
+
+    private WallapopOffer plain;
+    private WallapopOffer markdownHeavy;
+    private final StringBuilder reusable = new StringBuilder(256);
+
+    @Setup
+    public void setup() {
+        plain = new WallapopOffer("1098765432", "Mario Kart 8 Deluxe Nintendo Switch", "35 €",
+                "https://es.wallapop.com/item/mario-kart-8-deluxe-1098765432", 35);
+        markdownHeavy = new WallapopOffer("1098765433", "[PRECINTADO] *Zelda* _Tears of the Kingdom_ (edición `coleccionista`)",
+                "1.234,56 €", "https://es.wallapop.com/item/zelda-totk-1098765433", 1234.56);
+    }
+
+    @Benchmark
+    public String plainTitle() {
+        return plain.toTelegramMessage();
+    }
+
+    @Benchmark
+    public String markdownHeavyTitle() {
+        return markdownHeavy.toTelegramMessage();
+    }
+
+    @Benchmark
+    public int markdownHeavyReusableBuilder() {
+        reusable.setLength(0);
+        return markdownHeavy.appendTelegramMessage(reusable).length();
+    }
+}
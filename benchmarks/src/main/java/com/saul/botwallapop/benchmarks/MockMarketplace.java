@@ -0,0 +1,256 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Servidor HTTP local que hace de Wallapop y de la API de Telegram a partir de
+ * fixtures grabadas (ver {@link FixtureRecorder}):
+ * <ul>
+ *   <li>{@code /api/v3/search}: sirve las páginas grabadas hasta {@code pages} de
+ *   profundidad. Los anuncios se renombran con la consulta para que cada búsqueda
+ *   vea los suyos, y una fracción {@code churn} sale nueva en cada petición.</li>
+ *   <li>{@code /bot<token>/<método>}: responde como Telegram (con la respuesta
+ *   grabada del método si la hay) y cuenta los mensajes enviados.</li>
+ * </ul>
+ * Latencia y tasa de errores se configuran por separado para cada lado.
+ */
+public class MockMarketplace implements AutoCloseable {
+
+    /**
+     * Comportamiento del servidor simulado.
+     *
+     * @param latencyMs         latencia de cada página de resultados
+     * @param jitterMs          variación aleatoria añadida a {@code latencyMs}
+     * @param pages             páginas por búsqueda
+     * @param errorRate         fracción de páginas que responden 503
+     * @param churn             fracción de anuncios nuevos en cada página servida
+     * @param telegramLatencyMs latencia de cada llamada a Telegram
+     * @param telegramErrorRate fracción de llamadas a Telegram que responden 429
+     */
+    public record Options(long latencyMs, long jitterMs, int pages, double errorRate, double churn,
+                          long telegramLatencyMs, double telegramErrorRate) {
+
+        public static Options defaults() {
+            return new Options(20, 10, 3, 0, 0.05, 5, 0);
+        }
+    }
+
+    /** Contadores acumulados desde que arrancó el servidor. */
+    public record Stats(long searches, long pages, long searchErrors, long telegramCalls, long telegramErrors,
+                        long messages) {}
+
+    static {
+        // Sin esto el servidor del JDK suma ~40 ms por respuesta (Nagle + ACK retardado)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    // Los ids grabados se sustituyen por ids numéricos: por consulta (estables) o nuevos
+    private static final long FRESH_IDS = 5_000_000_000_000_000L;
+    private static final String TOO_MANY_REQUESTS = "{\"ok\":false,\"error_code\":429,"
+            + "\"description\":\"Too Many Requests: retry after 1\",\"parameters\":{\"retry_after\":1}}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Options options;
+    private final List<ObjectNode> pages = new ArrayList<>();
+    private final Map<String, JsonNode> telegramFixtures = new HashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong pagesServed = new AtomicLong();
+    private final AtomicLong searchErrors = new AtomicLong();
+    private final AtomicLong telegramCalls = new AtomicLong();
+    private final AtomicLong telegramErrors = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final AtomicLong freshIds = new AtomicLong();
+
+    /**
+     * @param searchPages      páginas grabadas (ver {@link RecordedPages})
+     * @param telegramFixtures respuestas grabadas por método de Telegram (pueden faltar)
+     * @param threads          peticiones atendidas a la vez
+     */
+    public MockMarketplace(Options options, List<byte[]> searchPages, Map<String, byte[]> telegramFixtures,
+                           int threads) throws IOException {
+        this.options = options;
+        for (byte[] page : searchPages) pages.add((ObjectNode) mapper.readTree(page));
+        for (Map.Entry<String, byte[]> e : telegramFixtures.entrySet()) {
+            this.telegramFixtures.put(e.getKey().toLowerCase(Locale.ROOT), mapper.readTree(e.getValue()));
+        }
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        server.setExecutor(executor);
+        server.createContext("/api/v3/search", this::handleSearch);
+        server.createContext("/bot", this::handleTelegram);
+        server.start();
+    }
+
+    public String searchUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v3/search";
+    }
+
+    /** Valor para {@code telegram.bot.api-url}. */
+    public String telegramUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/bot";
+    }
+
+    public Stats stats() {
+        return new Stats(searches.get(), pagesServed.get(), searchErrors.get(), telegramCalls.get(),
+                telegramErrors.get(), messages.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // -------------------- WALLAPOP --------------------
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            sleep(options.latencyMs(), options.jitterMs());
+            if (chance(options.errorRate())) {
+                searchErrors.incrementAndGet();
+                reply(exchange, 503, "{}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            // Como el de Wallapop, el cursor lleva la consulta: "<página>:<palabras>"
+            String cursor = query.get("next_page");
+            int page = 1;
+            String keywords = query.getOrDefault("keywords", "");
+            if (cursor != null) {
+                int sep = cursor.indexOf(':');
+                page = Integer.parseInt(cursor.substring(0, sep));
+                keywords = cursor.substring(sep + 1);
+            } else {
+                searches.incrementAndGet();
+            }
+
+            ObjectNode root = pages.get((page - 1) % pages.size()).deepCopy();
+            rewriteItems(root.path("data").path("section").path("payload").path("items"), keywords, page);
+            ObjectNode meta = root.putObject("meta");
+            if (page < options.pages()) meta.put("next_page", (page + 1) + ":" + keywords);
+            pagesServed.incrementAndGet();
+            reply(exchange, 200, mapper.writeValueAsBytes(root));
+        }
+    }
+
+    private void rewriteItems(JsonNode items, String keywords, int page) {
+        if (!items.isArray()) return;
+        long queryId = (keywords.hashCode() & 0xffffffffL) * 1_000_000L + page * 1_000L;
+        String slug = keywords.toLowerCase().replaceAll("[^a-z0-9]+", "-");
+        long now = System.currentTimeMillis();
+        ArrayNode array = (ArrayNode) items;
+        for (int i = 0; i < array.size(); i++) {
+            ObjectNode item = (ObjectNode) array.get(i);
+            boolean fresh = chance(options.churn());
+            long id = fresh ? FRESH_IDS + freshIds.incrementAndGet() : queryId + i;
+            item.put("id", "m" + id);
+            item.put("web_slug", slug + "-" + id);
+            item.put("title", keywords + " " + item.path("title").asText());
+            if (fresh) {
+                item.put("created_at", now);
+                item.put("modified_at", now);
+            }
+        }
+    }
+
+    // -------------------- TELEGRAM --------------------
+    private void handleTelegram(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            // telegrambots pide los métodos en minúsculas ("sendmessage")
+            String method = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            telegramCalls.incrementAndGet();
+            sleep(options.telegramLatencyMs(), 0);
+            if (chance(options.telegramErrorRate())) {
+                telegramErrors.incrementAndGet();
+                reply(exchange, 429, TOO_MANY_REQUESTS.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            JsonNode request = body.length > 0 ? mapper.readTree(body) : mapper.createObjectNode();
+            ObjectNode response = mapper.createObjectNode().put("ok", true);
+            JsonNode recorded = telegramFixtures.get(method);
+            if (recorded != null && recorded.has("result")) {
+                response.set("result", recorded.get("result").deepCopy());
+            } else if (method.equals("sendmessage") || method.equals("editmessagetext")) {
+                response.set("result", mapper.createObjectNode());
+            } else if (method.equals("getupdates")) {
+                response.set("result", mapper.createArrayNode());
+            } else {
+                response.put("result", true);
+            }
+            if (response.get("result").isObject() && request.has("chat_id")) {
+                fillMessage((ObjectNode) response.get("result"), request);
+            }
+            if (method.equals("sendmessage")) messages.incrementAndGet();
+            reply(exchange, 200, mapper.writeValueAsBytes(response));
+        }
+    }
+
+    private void fillMessage(ObjectNode message, JsonNode request) {
+        message.put("message_id", request.has("message_id")
+                ? request.get("message_id").asLong() : messageIds.incrementAndGet());
+        message.put("date", System.currentTimeMillis() / 1000);
+        message.putObject("chat").put("id", request.path("chat_id").asLong()).put("type", "group");
+        message.put("text", request.path("text").asText());
+    }
+
+    // -------------------- UTILIDADES --------------------
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void reply(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static boolean chance(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static void sleep(long millis, long jitterMs) {
+        long total = millis + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (total <= 0) return;
+        try {
+            Thread.sleep(total);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
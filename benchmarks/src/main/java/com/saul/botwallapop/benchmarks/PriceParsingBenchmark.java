@@ -0,0 +1,49 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.saul.botwallapop.utils.PriceParser;
+
+/**
+ * Parseo del precio de las tarjetas ("23 €", "1.234,56 €"...): la expresión regular
+ * original frente a {@link PriceParser}. Con {@code -prof gc} se ve la memoria por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceParsingBenchmark {
+
+    private final String[] prices = {
+            "23 €", "40,50 €", "1.234,56 €", "999 €", "12,99€", "0,50 €", "150 €", "2.000 €"
+    };
+
+    @Benchmark
+    public void priceParser(Blackhole bh) {
+        for (String price : prices) bh.consume(PriceParser.parse(price));
+    }
+
+    @Benchmark
+    public void regexReplaceAndParse(Blackhole bh) {
+        for (String price : prices) {
+            try {
+                bh.consume(Double.parseDouble(price.replaceAll("[^0-9,\\.]", "").replace(",", ".")));
+            } catch (NumberFormatException e) {
+                bh.consume(0d);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.saul.botwallapop.config.ProductsConfig;
+import com.saul.botwallapop.model.ProductConfig;
+
+/** {@link ProductsConfig#parseProducts()} con listas de distinto tamaño. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductsConfigBenchmark {
+
+    @Param({"10", "1000"})
+    public int products;
+
+    private ProductsConfig config;
+
+    @Setup
+    public void setup() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < products; i++) lines.add("Producto de prueba " + i + " Nintendo Switch|" + (10 + i % 90));
+        config = new ProductsConfig();
+        config.setProducts(lines);
+    }
+
+    @Benchmark
+    public List<ProductConfig> parseProducts() {
+        return config.parseProducts();
+    }
+}
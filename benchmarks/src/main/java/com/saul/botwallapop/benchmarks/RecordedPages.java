@@ -0,0 +1,116 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Páginas de resultados grabadas ({@code recorded/page-N.json}, formato de la API v3,
+ * o las de un directorio de fixtures) y un {@link HttpClient} que las sirve sin red:
+ * la primera petición devuelve la página 1 y {@code next_page=N} la página N.
+ */
+public final class RecordedPages {
+
+    private RecordedPages() {}
+
+    public static List<byte[]> load() {
+        List<byte[]> pages = new ArrayList<>();
+        for (int n = 1; ; n++) {
+            try (InputStream in = RecordedPages.class.getResourceAsStream("/recorded/page-" + n + ".json")) {
+                if (in == null) break;
+                pages.add(in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (pages.isEmpty()) throw new IllegalStateException("No hay páginas grabadas en /recorded");
+        return pages;
+    }
+
+    /** Páginas {@code page-N.json} de un directorio (ver {@link FixtureRecorder}). */
+    public static List<byte[]> load(Path dir) {
+        List<byte[]> pages = new ArrayList<>();
+        for (int n = 1; Files.exists(dir.resolve("page-" + n + ".json")); n++) {
+            try {
+                pages.add(Files.readAllBytes(dir.resolve("page-" + n + ".json")));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (pages.isEmpty()) throw new IllegalStateException("No hay páginas grabadas en " + dir);
+        return pages;
+    }
+
+    public static HttpClient replayClient(List<byte[]> pages) {
+        return new ReplayHttpClient(pages);
+    }
+
+    private static final class ReplayHttpClient extends HttpClient {
+
+        private final List<byte[]> pages;
+
+        private ReplayHttpClient(List<byte[]> pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            String query = request.uri().getRawQuery();
+            int page = 1;
+            if (query != null && query.startsWith("next_page=")) page = Integer.parseInt(query.substring(10));
+            byte[] body = page <= pages.size() ? pages.get(page - 1) : new byte[0];
+            return (HttpResponse<T>) new Response(request, page <= pages.size() ? 200 : 404, body);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            return CompletableFuture.completedFuture(send(request, handler));
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, handler);
+        }
+
+        @Override public Optional<CookieHandler> cookieHandler() { return Optional.empty(); }
+        @Override public Optional<Duration> connectTimeout() { return Optional.empty(); }
+        @Override public Redirect followRedirects() { return Redirect.NEVER; }
+        @Override public Optional<ProxySelector> proxy() { return Optional.empty(); }
+        @Override public SSLContext sslContext() { return null; }
+        @Override public SSLParameters sslParameters() { return null; }
+        @Override public Optional<Authenticator> authenticator() { return Optional.empty(); }
+        @Override public Version version() { return Version.HTTP_1_1; }
+        @Override public Optional<Executor> executor() { return Optional.empty(); }
+    }
+
+    private record Response(HttpRequest request, int statusCode, byte[] body) implements HttpResponse<byte[]> {
+        @Override public Optional<HttpResponse<byte[]>> previousResponse() { return Optional.empty(); }
+        @Override public HttpHeaders headers() { return HttpHeaders.of(Map.of(), (k, v) -> true); }
+        @Override public Optional<SSLSession> sslSession() { return Optional.empty(); }
+        @Override public URI uri() { return request.uri(); }
+        @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_1_1; }
+    }
+}
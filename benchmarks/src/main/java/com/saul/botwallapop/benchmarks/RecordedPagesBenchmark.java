@@ -0,0 +1,91 @@
+package com.saul.botwallapop.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saul.botwallapop.config.SearchConfig;
+import com.saul.botwallapop.config.StorageConfig;
+import com.saul.botwallapop.model.BotState;
+import com.saul.botwallapop.model.SearchResult;
+import com.saul.botwallapop.model.WallapopOffer;
+import com.saul.botwallapop.service.HttpSearchBackend;
+import com.saul.botwallapop.store.NotifiedOfferStore;
+import com.saul.botwallapop.utils.HostPacer;
+
+/**
+ * De extremo a extremo sobre páginas grabadas: paginación y parseo JSON en
+ * {@link HttpSearchBackend}, filtro de ya notificadas y formato del mensaje.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordedPagesBenchmark {
+
+    private HttpSearchBackend backend;
+    private NotifiedOfferStore store;
+    private BotState botState;
+    private Path dataDir;
+
+    @Setup
+    public void setup() throws Exception {
+        SearchConfig config = new SearchConfig();
+        config.setApiUrl("http://replay.local/api/v3/search");
+        config.setIncremental(false);
+
+        backend = new HttpSearchBackend(new ObjectMapper(), config, new HostPacer(0, 0), new SimpleMeterRegistry(),
+                RecordedPages.replayClient(RecordedPages.load()));
+
+        dataDir = Files.createTempDirectory("pages-bench");
+        StorageConfig storage = new StorageConfig();
+        storage.setDataDir(dataDir.toString());
+        store = new NotifiedOfferStore(storage, new SimpleMeterRegistry());
+        store.load();
+        botState = new BotState(store);
+        // La mitad de las ofertas grabadas ya se notificaron en un escaneo anterior
+        List<WallapopOffer> all = backend.search("nintendo switch", Double.MAX_VALUE, null).getOffers();
+        for (int i = 0; i < all.size(); i += 2) botState.markOfferAsNotified(all.get(i).getUrl());
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+        File[] files = dataDir.toFile().listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dataDir.toFile().delete();
+    }
+
+    @Benchmark
+    public SearchResult searchOnly() {
+        return backend.search("nintendo switch", 100, null);
+    }
+
+    @Benchmark
+    public void searchFilterAndFormat(Blackhole bh) {
+        for (WallapopOffer offer : backend.search("nintendo switch", 100, null).getOffers()) {
+            if (botState.isOfferNotified(offer.getUrl())) continue;
+            bh.consume(offer.toTelegramMessage());
+        }
+    }
+}
@@ -2,10 +2,15 @@ package com.saul.botwallapop.config;
 
 import com.saul.botwallapop.model.BotState;
 import com.saul.botwallapop.service.TelegramBotService;
+import com.saul.botwallapop.store.NotifiedOfferStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
@@ -16,20 +21,30 @@ public class BotConfiguration {
     private static final Logger log = LoggerFactory.getLogger(BotConfiguration.class);
     
     @Bean
-    public BotState botState() {
-        return new BotState();
+    public BotState botState(NotifiedOfferStore notifiedOfferStore) {
+        return new BotState(notifiedOfferStore);
     }
     
+    // Long polling (por defecto); con telegram.bot.mode=webhook los updates llegan a TelegramWebhookController
     @Bean
-    public TelegramBotsApi telegramBotsApi(TelegramBotService botService) {
-        try {
-            TelegramBotsApi api = new TelegramBotsApi(DefaultBotSession.class);
-            api.registerBot(botService);
-            log.info("✅ Bot registrado correctamente");
-            return api;
-        } catch (TelegramApiException e) {
-            log.error("❌ Error registrando bot: {}", e.getMessage());
-            throw new RuntimeException("No se pudo registrar el bot", e);
-        }
+    @ConditionalOnProperty(name = "telegram.bot.mode", havingValue = "polling", matchIfMissing = true)
+    public TelegramBotsApi telegramBotsApi() throws TelegramApiException {
+        return new TelegramBotsApi(DefaultBotSession.class);
+    }
+
+    // El registro (que ya habla con Telegram) se hace al terminar el refresh y no al crear el bean:
+    // así la ejecución de entrenamiento del perfil cds (spring.context.exit=onRefresh) no sale a la red
+    @EventListener(ContextRefreshedEvent.class)
+    public void registerBot(ContextRefreshedEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        context.getBeanProvider(TelegramBotsApi.class).ifAvailable(api -> {
+            try {
+                api.registerBot(context.getBean(TelegramBotService.class));
+                log.info("✅ Bot registrado correctamente");
+            } catch (TelegramApiException e) {
+                log.error("❌ Error registrando bot: {}", e.getMessage());
+                throw new RuntimeException("No se pudo registrar el bot", e);
+            }
+        });
     }
 }
@@ -0,0 +1,75 @@
+package com.saul.botwallapop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "telegram.delivery")
+public class DeliveryConfig {
+
+    // Límites de Telegram: ~30 msg/s en total y ~20 msg/min por grupo
+    private double globalPerSecond = 25;
+    private double perChatPerMinute = 20;
+    private int perChatBurst = 3;
+
+    private int maxAttempts = 5;
+    private int senderThreads = 4;
+    // Con más mensajes en cola que esto, la búsqueda espera antes de encolar más ofertas
+    private int maxQueued = 200;
+
+    // Agrupar las ofertas de un mismo producto en mensajes resumen
+    private boolean digest = true;
+    private int digestMaxOffers = 10;
+
+    // Comandos fuera del hilo de updates: hilos, cola, borrados en paralelo y avance de /buscar
+    private int commandThreads = 2;
+    private int commandQueueSize = 20;
+    private int deleteThreads = 4;
+    private int progressIntervalSeconds = 20;
+
+    // Avisar de bajadas de precio de anuncios ya notificados (% mínimo respecto al último aviso)
+    private boolean priceDrops = true;
+    private double priceDropMinPercent = 5;
+
+    public double getGlobalPerSecond() { return globalPerSecond; }
+    public void setGlobalPerSecond(double globalPerSecond) { this.globalPerSecond = globalPerSecond; }
+
+    public double getPerChatPerMinute() { return perChatPerMinute; }
+    public void setPerChatPerMinute(double perChatPerMinute) { this.perChatPerMinute = perChatPerMinute; }
+
+    public int getPerChatBurst() { return perChatBurst; }
+    public void setPerChatBurst(int perChatBurst) { this.perChatBurst = perChatBurst; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public int getSenderThreads() { return senderThreads; }
+    public void setSenderThreads(int senderThreads) { this.senderThreads = senderThreads; }
+
+    public int getMaxQueued() { return maxQueued; }
+    public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+
+    public boolean isDigest() { return digest; }
+    public void setDigest(boolean digest) { this.digest = digest; }
+
+    public int getDigestMaxOffers() { return digestMaxOffers; }
+    public void setDigestMaxOffers(int digestMaxOffers) { this.digestMaxOffers = digestMaxOffers; }
+
+    public int getCommandThreads() { return commandThreads; }
+    public void setCommandThreads(int commandThreads) { this.commandThreads = commandThreads; }
+
+    public int getCommandQueueSize() { return commandQueueSize; }
+    public void setCommandQueueSize(int commandQueueSize) { this.commandQueueSize = commandQueueSize; }
+
+    public int getDeleteThreads() { return deleteThreads; }
+    public void setDeleteThreads(int deleteThreads) { this.deleteThreads = deleteThreads; }
+
+    public int getProgressIntervalSeconds() { return progressIntervalSeconds; }
+    public void setProgressIntervalSeconds(int progressIntervalSeconds) { this.progressIntervalSeconds = progressIntervalSeconds; }
+
+    public boolean isPriceDrops() { return priceDrops; }
+    public void setPriceDrops(boolean priceDrops) { this.priceDrops = priceDrops; }
+
+    public double getPriceDropMinPercent() { return priceDropMinPercent; }
+    public void setPriceDropMinPercent(double priceDropMinPercent) { this.priceDropMinPercent = priceDropMinPercent; }
+}
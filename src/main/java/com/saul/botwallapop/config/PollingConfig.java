@@ -0,0 +1,38 @@
+package com.saul.botwallapop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "wallapop.polling")
+public class PollingConfig {
+
+    // Si está desactivado todos los productos usan wallapop.check.interval.minutes
+    private boolean adaptive = true;
+    private int minIntervalMinutes = 2;
+    private int maxIntervalMinutes = 60;
+    // Peso de la última observación en la media exponencial (0-1)
+    private double smoothing = 0.3;
+    // Ofertas nuevas que se espera encontrar en cada consulta
+    private double targetOffersPerPoll = 1.0;
+    // Máximo de productos por ronda (0 = sin límite)
+    private int maxProductsPerTick = 0;
+
+    public boolean isAdaptive() { return adaptive; }
+    public void setAdaptive(boolean adaptive) { this.adaptive = adaptive; }
+
+    public int getMinIntervalMinutes() { return minIntervalMinutes; }
+    public void setMinIntervalMinutes(int minIntervalMinutes) { this.minIntervalMinutes = minIntervalMinutes; }
+
+    public int getMaxIntervalMinutes() { return maxIntervalMinutes; }
+    public void setMaxIntervalMinutes(int maxIntervalMinutes) { this.maxIntervalMinutes = maxIntervalMinutes; }
+
+    public double getSmoothing() { return smoothing; }
+    public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+
+    public double getTargetOffersPerPoll() { return targetOffersPerPoll; }
+    public void setTargetOffersPerPoll(double targetOffersPerPoll) { this.targetOffersPerPoll = targetOffersPerPoll; }
+
+    public int getMaxProductsPerTick() { return maxProductsPerTick; }
+    public void setMaxProductsPerTick(int maxProductsPerTick) { this.maxProductsPerTick = maxProductsPerTick; }
+}
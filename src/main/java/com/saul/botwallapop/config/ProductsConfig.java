@@ -5,7 +5,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 @Configuration
 @ConfigurationProperties(prefix = "wallapop")
@@ -21,22 +23,72 @@ public class ProductsConfig {
         this.products = products;
     }
     
+    /**
+     * Formato: {@code nombre|precio_maximo[|regla=valor...]}. Reglas:
+     * {@code desde=10}, {@code incluye=a,b}, {@code excluye=c,d}, {@code regex=...}
+     * (sin '|'), {@code zona=lat,lon,km}, {@code estado=new,as_good_as_new},
+     * {@code envio=si}, {@code categoria=12900} (solo en la búsqueda).
+     */
     public List<ProductConfig> parseProducts() {
         List<ProductConfig> configs = new ArrayList<>();
         
         for (String product : products) {
-            String[] parts = product.split("\\|");
-            if (parts.length == 2) {
-                try {
-                    String name = parts[0].trim();
-                    double minPrice = Double.parseDouble(parts[1].trim());
-                    configs.add(new ProductConfig(name, minPrice));
-                } catch (NumberFormatException e) {
-                    System.err.println("Error parseando: " + product);
-                }
+            if (product.split("\\|").length < 2) continue;
+            try {
+                configs.add(parseProduct(product));
+            } catch (IllegalArgumentException e) { // incluye números y regex mal formados
+                System.err.println("Error parseando: " + product + " (" + e.getMessage() + ")");
             }
         }
         
         return configs;
     }
+
+    /** Parsea un producto con el formato de {@link #parseProducts()}; lanza IllegalArgumentException si no es válido. */
+    public static ProductConfig parseProduct(String spec) {
+        String[] parts = spec.split("\\|");
+        if (parts.length < 2 || parts[0].isBlank()) {
+            throw new IllegalArgumentException("formato: nombre|precio_maximo[|regla=valor...]");
+        }
+        String name = parts[0].trim();
+        double minPrice = Double.parseDouble(parts[1].trim().replace(',', '.'));
+        ProductConfig config = new ProductConfig(name, minPrice);
+        for (int i = 2; i < parts.length; i++) applyRule(config, parts[i].trim());
+        config.getFilter(); // compila ya para detectar errores al arrancar
+        return config;
+    }
+
+    private static void applyRule(ProductConfig config, String rule) {
+        if (rule.isEmpty()) return;
+        int eq = rule.indexOf('=');
+        if (eq <= 0) throw new IllegalArgumentException("regla sin valor: " + rule);
+        String key = rule.substring(0, eq).trim().toLowerCase();
+        String value = rule.substring(eq + 1).trim();
+
+        switch (key) {
+            case "desde" -> config.setPriceFrom(Double.parseDouble(value));
+            case "incluye" -> config.setRequiredKeywords(splitList(value));
+            case "excluye" -> config.setExcludedKeywords(splitList(value));
+            case "regex" -> {
+                Pattern.compile(value);
+                config.setTitlePattern(value);
+            }
+            case "zona" -> {
+                List<String> zone = splitList(value);
+                if (zone.size() != 3) throw new IllegalArgumentException("zona debe ser lat,lon,km");
+                config.setLatitude(Double.parseDouble(zone.get(0)));
+                config.setLongitude(Double.parseDouble(zone.get(1)));
+                config.setRadiusKm(Double.parseDouble(zone.get(2)));
+            }
+            case "estado" -> config.setConditions(splitList(value));
+            case "categoria" -> config.setCategoryIds(splitList(value));
+            case "envio" -> config.setShippingRequired(value.equalsIgnoreCase("si") || value.equalsIgnoreCase("true"));
+            default -> throw new IllegalArgumentException("regla desconocida: " + key);
+        }
+    }
+
+    private static List<String> splitList(String value) {
+        return new ArrayList<>(Arrays.stream(value.split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).toList());
+    }
 }
@@ -0,0 +1,119 @@
+package com.saul.botwallapop.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "wallapop.search")
+public class SearchConfig {
+
+    // Backend principal: "http" (API JSON) o "selenium" (navegador)
+    private String backend = "http";
+    private boolean fallbackToSelenium = true;
+
+    private String apiUrl = "https://api.wallapop.com/api/v3/search";
+    private String webUrl = "https://es.wallapop.com";
+    private int maxPages = 50;
+    private int timeoutSeconds = 10;
+    // Ordenar por novedad y parar al llegar al último anuncio ya visto
+    private boolean incremental = true;
+    // Orden pedido al servidor si no es incremental (vacío = relevancia)
+    private String orderBy = "newest";
+
+    // Escaneo en paralelo y pool de navegadores
+    private int parallelism = 2;
+    private int driverPoolSize = 2;
+    private int driverMaxUses = 20;
+    private long hostMinIntervalMs = 3000;
+    private long hostJitterMs = 4000;
+
+    // Caché de resultados y agrupación de consultas solapadas
+    private int cacheTtlSeconds = 60;
+    private int cacheMaxEntries = 200;
+    private boolean mergeQueries = false;
+
+    // Espera a tarjetas nuevas tras scroll/click y pausa mínima de cortesía
+    private long scrollWaitTimeoutMs = 4000;
+    private long politenessMinMs = 300;
+    private long politenessJitterMs = 500;
+
+    // Navegador ligero: sin imágenes, fuentes ni terceros y con perfil persistente
+    private boolean leanBrowser = true;
+    private String browserProfileDir = "data/chrome";
+    private List<String> blockedUrls = new ArrayList<>(List.of(
+            "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.avif", "*.svg", "*.ico",
+            "*.mp4", "*.webm", "*.mp3", "*.woff", "*.woff2", "*.ttf", "*.otf",
+            "*doubleclick.net*", "*googlesyndication.com*", "*googletagmanager.com*",
+            "*google-analytics.com*", "*googleadservices.com*", "*facebook.net*", "*facebook.com/tr*",
+            "*hotjar.com*", "*criteo.*", "*taboola.com*", "*adnxs.com*", "*amazon-adsystem.com*",
+            "*bing.com*", "*tiktok.com*", "*pinterest.com*", "*sentry.io*", "*datadoghq*"));
+
+    public String getBackend() { return backend; }
+    public void setBackend(String backend) { this.backend = backend; }
+
+    public boolean isFallbackToSelenium() { return fallbackToSelenium; }
+    public void setFallbackToSelenium(boolean fallbackToSelenium) { this.fallbackToSelenium = fallbackToSelenium; }
+
+    public String getApiUrl() { return apiUrl; }
+    public void setApiUrl(String apiUrl) { this.apiUrl = apiUrl; }
+
+    public String getWebUrl() { return webUrl; }
+    public void setWebUrl(String webUrl) { this.webUrl = webUrl; }
+
+    public int getMaxPages() { return maxPages; }
+    public void setMaxPages(int maxPages) { this.maxPages = maxPages; }
+
+    public int getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(int timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+
+    public boolean isIncremental() { return incremental; }
+    public void setIncremental(boolean incremental) { this.incremental = incremental; }
+
+    public String getOrderBy() { return orderBy; }
+    public void setOrderBy(String orderBy) { this.orderBy = orderBy; }
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public int getDriverPoolSize() { return driverPoolSize; }
+    public void setDriverPoolSize(int driverPoolSize) { this.driverPoolSize = driverPoolSize; }
+
+    public int getDriverMaxUses() { return driverMaxUses; }
+    public void setDriverMaxUses(int driverMaxUses) { this.driverMaxUses = driverMaxUses; }
+
+    public long getHostMinIntervalMs() { return hostMinIntervalMs; }
+    public void setHostMinIntervalMs(long hostMinIntervalMs) { this.hostMinIntervalMs = hostMinIntervalMs; }
+
+    public long getHostJitterMs() { return hostJitterMs; }
+    public void setHostJitterMs(long hostJitterMs) { this.hostJitterMs = hostJitterMs; }
+
+    public int getCacheTtlSeconds() { return cacheTtlSeconds; }
+    public void setCacheTtlSeconds(int cacheTtlSeconds) { this.cacheTtlSeconds = cacheTtlSeconds; }
+
+    public int getCacheMaxEntries() { return cacheMaxEntries; }
+    public void setCacheMaxEntries(int cacheMaxEntries) { this.cacheMaxEntries = cacheMaxEntries; }
+
+    public boolean isMergeQueries() { return mergeQueries; }
+    public void setMergeQueries(boolean mergeQueries) { this.mergeQueries = mergeQueries; }
+
+    public long getScrollWaitTimeoutMs() { return scrollWaitTimeoutMs; }
+    public void setScrollWaitTimeoutMs(long scrollWaitTimeoutMs) { this.scrollWaitTimeoutMs = scrollWaitTimeoutMs; }
+
+    public long getPolitenessMinMs() { return politenessMinMs; }
+    public void setPolitenessMinMs(long politenessMinMs) { this.politenessMinMs = politenessMinMs; }
+
+    public long getPolitenessJitterMs() { return politenessJitterMs; }
+    public void setPolitenessJitterMs(long politenessJitterMs) { this.politenessJitterMs = politenessJitterMs; }
+
+    public boolean isLeanBrowser() { return leanBrowser; }
+    public void setLeanBrowser(boolean leanBrowser) { this.leanBrowser = leanBrowser; }
+
+    public String getBrowserProfileDir() { return browserProfileDir; }
+    public void setBrowserProfileDir(String browserProfileDir) { this.browserProfileDir = browserProfileDir; }
+
+    public List<String> getBlockedUrls() { return blockedUrls; }
+    public void setBlockedUrls(List<String> blockedUrls) { this.blockedUrls = blockedUrls; }
+}
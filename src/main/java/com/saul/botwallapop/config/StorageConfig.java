@@ -0,0 +1,61 @@
+package com.saul.botwallapop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "wallapop.storage")
+public class StorageConfig {
+
+    // Directorio local donde se guarda el estado del bot
+    private String dataDir = "data";
+
+    // Ofertas notificadas: caducidad y tamaño máximo
+    private int notifiedTtlDays = 90;
+    private int notifiedMaxEntries = 200_000;
+
+    // Filtro de Bloom opcional delante del registro exacto
+    private boolean bloomEnabled = false;
+    private int bloomExpectedEntries = 100_000;
+    private double bloomFpp = 0.01;
+
+    // Índice de anuncios vistos con su historial de precios (máximo de anuncios recordados)
+    private int offerIndexMaxItems = 300_000;
+
+    // Suscripciones por chat (/suscribir), 0 = sin límite
+    private int subscriptionsMaxPerChat = 50;
+
+    // Cola persistente de mensajes salientes (segmentos mapeados en memoria)
+    private int outboxSegmentBytes = 4 * 1024 * 1024;
+    private boolean outboxFsync = false;
+
+    public String getDataDir() { return dataDir; }
+    public void setDataDir(String dataDir) { this.dataDir = dataDir; }
+
+    public int getNotifiedTtlDays() { return notifiedTtlDays; }
+    public void setNotifiedTtlDays(int notifiedTtlDays) { this.notifiedTtlDays = notifiedTtlDays; }
+
+    public int getNotifiedMaxEntries() { return notifiedMaxEntries; }
+    public void setNotifiedMaxEntries(int notifiedMaxEntries) { this.notifiedMaxEntries = notifiedMaxEntries; }
+
+    public boolean isBloomEnabled() { return bloomEnabled; }
+    public void setBloomEnabled(boolean bloomEnabled) { this.bloomEnabled = bloomEnabled; }
+
+    public int getBloomExpectedEntries() { return bloomExpectedEntries; }
+    public void setBloomExpectedEntries(int bloomExpectedEntries) { this.bloomExpectedEntries = bloomExpectedEntries; }
+
+    public double getBloomFpp() { return bloomFpp; }
+    public void setBloomFpp(double bloomFpp) { this.bloomFpp = bloomFpp; }
+
+    public int getOfferIndexMaxItems() { return offerIndexMaxItems; }
+    public void setOfferIndexMaxItems(int offerIndexMaxItems) { this.offerIndexMaxItems = offerIndexMaxItems; }
+
+    public int getSubscriptionsMaxPerChat() { return subscriptionsMaxPerChat; }
+    public void setSubscriptionsMaxPerChat(int subscriptionsMaxPerChat) { this.subscriptionsMaxPerChat = subscriptionsMaxPerChat; }
+
+    public int getOutboxSegmentBytes() { return outboxSegmentBytes; }
+    public void setOutboxSegmentBytes(int outboxSegmentBytes) { this.outboxSegmentBytes = outboxSegmentBytes; }
+
+    public boolean isOutboxFsync() { return outboxFsync; }
+    public void setOutboxFsync(boolean outboxFsync) { this.outboxFsync = outboxFsync; }
+}
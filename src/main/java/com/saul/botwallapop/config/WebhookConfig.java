@@ -0,0 +1,38 @@
+package com.saul.botwallapop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "telegram.webhook")
+public class WebhookConfig {
+
+    // URL pública (https) donde Telegram envía los updates; vacía = no se registra (pruebas en local)
+    private String url = "";
+    private String path = "/telegram/webhook";
+    // Telegram la manda en la cabecera X-Telegram-Bot-Api-Secret-Token
+    private String secretToken = "";
+
+    // Hilos que procesan comandos y updates que pueden esperar en cola
+    private int threads = 2;
+    private int queueSize = 50;
+    private int maxConnections = 10;
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getSecretToken() { return secretToken; }
+    public void setSecretToken(String secretToken) { this.secretToken = secretToken; }
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+
+    public int getQueueSize() { return queueSize; }
+    public void setQueueSize(int queueSize) { this.queueSize = queueSize; }
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+}
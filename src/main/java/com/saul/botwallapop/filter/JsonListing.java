@@ -0,0 +1,80 @@
+package com.saul.botwallapop.filter;
+
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.saul.botwallapop.utils.PriceParser;
+
+/**
+ * {@link Listing} sobre un nodo JSON de la API o de la extracción del navegador.
+ * Es reutilizable: {@link #reset(JsonNode)} lo apunta al siguiente anuncio sin
+ * crear objetos nuevos. El precio y el título en minúsculas se calculan una vez.
+ */
+public class JsonListing implements Listing {
+
+    private JsonNode item;
+    private double price;
+    private boolean priceParsed;
+    private String lowerTitle;
+
+    public JsonListing reset(JsonNode item) {
+        this.item = item;
+        this.priceParsed = false;
+        this.lowerTitle = null;
+        return this;
+    }
+
+    @Override
+    public String title() {
+        return item.path("title").asText("");
+    }
+
+    @Override
+    public String lowerTitle() {
+        if (lowerTitle == null) lowerTitle = title().toLowerCase(Locale.ROOT);
+        return lowerTitle;
+    }
+
+    @Override
+    public double price() {
+        if (!priceParsed) {
+            JsonNode node = item.path("price");
+            if (node.isObject()) price = node.path("amount").asDouble();
+            else if (node.isNumber()) price = node.asDouble();
+            else price = PriceParser.parse(node.asText(""));
+            priceParsed = true;
+        }
+        return price;
+    }
+
+    @Override
+    public double latitude() {
+        JsonNode location = item.path("location");
+        return location.has("latitude") ? location.path("latitude").asDouble() : Double.NaN;
+    }
+
+    @Override
+    public double longitude() {
+        JsonNode location = item.path("location");
+        return location.has("longitude") ? location.path("longitude").asDouble() : Double.NaN;
+    }
+
+    @Override
+    public String condition() {
+        JsonNode condition = item.path("condition");
+        if (condition.isMissingNode()) condition = item.path("type_attributes").path("condition");
+        if (condition.isObject()) condition = condition.path("value");
+        return condition.isTextual() ? condition.asText() : null;
+    }
+
+    @Override
+    public Boolean shippingAvailable() {
+        JsonNode shipping = item.path("shipping");
+        if (shipping.isObject()) {
+            return shipping.path("item_is_shippable").asBoolean(false)
+                    && shipping.path("user_allows_shipping").asBoolean(true);
+        }
+        JsonNode flag = item.path("supports_shipping");
+        return flag.isBoolean() ? flag.asBoolean() : null;
+    }
+}
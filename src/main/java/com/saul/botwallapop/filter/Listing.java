@@ -0,0 +1,24 @@
+package com.saul.botwallapop.filter;
+
+/**
+ * Vista de un anuncio tal como llega de la búsqueda, antes de crear el
+ * {@code WallapopOffer}. Los datos que la fuente no da se devuelven como
+ * desconocidos (NaN / null) y las reglas que dependen de ellos no descartan.
+ */
+public interface Listing {
+
+    String title();
+
+    /** Título en minúsculas, para comparar palabras clave. */
+    String lowerTitle();
+
+    double price();
+
+    double latitude();
+
+    double longitude();
+
+    String condition();
+
+    Boolean shippingAvailable();
+}
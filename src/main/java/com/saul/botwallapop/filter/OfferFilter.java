@@ -0,0 +1,167 @@
+package com.saul.botwallapop.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.saul.botwallapop.model.ProductConfig;
+
+/**
+ * Reglas de un producto compiladas en una cadena de comprobaciones, de la más
+ * barata a la más cara (precio, envío, estado, distancia, palabras clave,
+ * expresión regular). Se para en la primera que no se cumple.
+ */
+public class OfferFilter {
+
+    /** Sin reglas: acepta cualquier anuncio. */
+    public static final OfferFilter ACCEPT_ALL = new OfferFilter(new Rule[0], "");
+
+    private final Rule[] rules;
+    // Descripción canónica de las reglas: dos filtros con la misma firma aceptan lo mismo
+    private final String signature;
+
+    private OfferFilter(Rule[] rules, String signature) {
+        this.rules = rules;
+        this.signature = signature;
+    }
+
+    public String getSignature() { return signature; }
+
+    /** Solo el precio máximo (búsquedas sueltas). */
+    public static OfferFilter maxPrice(double maxPrice) {
+        return new OfferFilter(new Rule[] { priceRule(0, maxPrice) }, "precio=0-" + maxPrice);
+    }
+
+    /** Acepta lo que acepte cualquiera de los filtros (búsquedas agrupadas). */
+    public static OfferFilter anyOf(List<OfferFilter> filters) {
+        if (filters.size() == 1) return filters.get(0);
+        if (filters.stream().anyMatch(f -> f.rules.length == 0)) return ACCEPT_ALL;
+        OfferFilter[] members = filters.toArray(new OfferFilter[0]);
+        String signature = filters.stream().map(f -> "(" + f.signature + ")").sorted().collect(Collectors.joining("|"));
+        return new OfferFilter(new Rule[] { new Rule("grupo", l -> {
+            for (OfferFilter member : members) if (member.accepts(l)) return true;
+            return false;
+        }) }, signature);
+    }
+
+    /** Este filtro más la exigencia de que el título contenga todas las palabras. */
+    public OfferFilter requiringKeywords(Collection<String> keywords) {
+        if (keywords.isEmpty()) return this;
+        Rule[] extended = Arrays.copyOf(rules, rules.length + 1);
+        // Las palabras vienen de SubscriptionIndex.tokens: se comparan con el título sin tildes
+        String[] required = keywords.toArray(new String[0]);
+        extended[rules.length] = new Rule("consulta", l -> {
+            String title = SubscriptionIndex.fold(l.lowerTitle());
+            for (String keyword : required) if (!title.contains(keyword)) return false;
+            return true;
+        });
+        return new OfferFilter(extended, signature + ";consulta=" + String.join(",", keywords));
+    }
+
+    public static OfferFilter compile(ProductConfig product) {
+        List<Rule> rules = new ArrayList<>();
+        StringBuilder signature = new StringBuilder();
+        if (product.getPriceFrom() > 0 || product.getMinPrice() > 0) {
+            double to = product.getMinPrice() > 0 ? product.getMinPrice() : Double.MAX_VALUE;
+            rules.add(priceRule(product.getPriceFrom(), to));
+            signature.append("precio=").append(product.getPriceFrom()).append('-').append(to).append(';');
+        }
+        if (product.isShippingRequired()) {
+            rules.add(new Rule("envio", l -> !Boolean.FALSE.equals(l.shippingAvailable())));
+            signature.append("envio;");
+        }
+        if (!product.getConditions().isEmpty()) {
+            Set<String> conditions = product.getConditions().stream()
+                    .map(c -> c.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+            signature.append("estado=").append(new TreeSet<>(conditions)).append(';');
+            rules.add(new Rule("estado", l -> {
+                String condition = l.condition();
+                return condition == null || conditions.contains(condition.toLowerCase(Locale.ROOT));
+            }));
+        }
+        if (product.getRadiusKm() > 0) {
+            double lat = product.getLatitude();
+            double lon = product.getLongitude();
+            double radius = product.getRadiusKm();
+            signature.append("zona=").append(lat).append(',').append(lon).append(',').append(radius).append(';');
+            rules.add(new Rule("distancia", l -> {
+                double itemLat = l.latitude();
+                double itemLon = l.longitude();
+                return Double.isNaN(itemLat) || Double.isNaN(itemLon) || distanceKm(lat, lon, itemLat, itemLon) <= radius;
+            }));
+        }
+        if (!product.getRequiredKeywords().isEmpty()) {
+            rules.add(requiredKeywordsRule("palabras", product.getRequiredKeywords()));
+            signature.append("incluye=").append(String.join(",", lowerCase(product.getRequiredKeywords()))).append(';');
+        }
+        if (!product.getExcludedKeywords().isEmpty()) {
+            String[] excluded = lowerCase(product.getExcludedKeywords());
+            signature.append("excluye=").append(String.join(",", excluded)).append(';');
+            rules.add(new Rule("excluidas", l -> {
+                String title = l.lowerTitle();
+                for (String keyword : excluded) if (title.contains(keyword)) return false;
+                return true;
+            }));
+        }
+        if (product.getTitlePattern() != null && !product.getTitlePattern().isBlank()) {
+            Pattern pattern = Pattern.compile(product.getTitlePattern(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            rules.add(new Rule("regex", l -> pattern.matcher(l.title()).find()));
+            signature.append("regex=").append(product.getTitlePattern()).append(';');
+        }
+        return rules.isEmpty() ? ACCEPT_ALL : new OfferFilter(rules.toArray(new Rule[0]), signature.toString());
+    }
+
+    public boolean accepts(Listing listing) {
+        return rejectReason(listing) == null;
+    }
+
+    /** Nombre de la primera regla que no cumple el anuncio, o null si las cumple todas. */
+    public String rejectReason(Listing listing) {
+        for (Rule rule : rules) {
+            if (!rule.check.test(listing)) return rule.name;
+        }
+        return null;
+    }
+
+    private static Rule priceRule(double from, double to) {
+        return new Rule("precio", l -> {
+            double price = l.price();
+            return price >= from && price <= to;
+        });
+    }
+
+    private static Rule requiredKeywordsRule(String name, List<String> keywords) {
+        String[] required = lowerCase(keywords);
+        return new Rule(name, l -> {
+            String title = l.lowerTitle();
+            for (String keyword : required) if (!title.contains(keyword)) return false;
+            return true;
+        });
+    }
+
+    private static String[] lowerCase(List<String> keywords) {
+        return keywords.stream().map(k -> k.trim().toLowerCase(Locale.ROOT)).filter(k -> !k.isEmpty()).toArray(String[]::new);
+    }
+
+    // Distancia sobre la esfera terrestre (haversine)
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean test(Listing listing);
+    }
+
+    private record Rule(String name, Check check) {}
+}
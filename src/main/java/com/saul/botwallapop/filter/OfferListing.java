@@ -0,0 +1,44 @@
+package com.saul.botwallapop.filter;
+
+import java.util.Locale;
+
+import com.saul.botwallapop.model.WallapopOffer;
+
+/** {@link Listing} sobre una oferta ya creada, para volver a filtrarla (reparto de búsquedas agrupadas). */
+public class OfferListing implements Listing {
+
+    private WallapopOffer offer;
+    private String lowerTitle;
+
+    public OfferListing reset(WallapopOffer offer) {
+        this.offer = offer;
+        this.lowerTitle = null;
+        return this;
+    }
+
+    @Override
+    public String title() {
+        return offer.getTitle() != null ? offer.getTitle() : "";
+    }
+
+    @Override
+    public String lowerTitle() {
+        if (lowerTitle == null) lowerTitle = title().toLowerCase(Locale.ROOT);
+        return lowerTitle;
+    }
+
+    @Override
+    public double price() { return offer.getPriceValue(); }
+
+    @Override
+    public double latitude() { return offer.getLatitude(); }
+
+    @Override
+    public double longitude() { return offer.getLongitude(); }
+
+    @Override
+    public String condition() { return offer.getCondition(); }
+
+    @Override
+    public Boolean shippingAvailable() { return offer.getShippingAvailable(); }
+}
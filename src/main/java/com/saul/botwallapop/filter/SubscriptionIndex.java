@@ -0,0 +1,98 @@
+package com.saul.botwallapop.filter;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.saul.botwallapop.model.Subscription;
+
+/**
+ * Índice invertido palabra → suscripciones para repartir cada anuncio entre
+ * todas las suscripciones que lo quieren. Cada suscripción se indexa solo por
+ * su palabra más larga (la más selectiva); al casar un título se miran las
+ * suscripciones de sus palabras y se comprueba que estén todas las demás y
+ * que el anuncio pase sus reglas. El coste depende de las palabras del título,
+ * no del número de suscripciones. Es inmutable: se reconstruye al cambiar las altas.
+ */
+public class SubscriptionIndex {
+
+    public static final SubscriptionIndex EMPTY = build(List.of());
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, List<Entry>> byToken;
+    private final int size;
+
+    private SubscriptionIndex(Map<String, List<Entry>> byToken, int size) {
+        this.byToken = byToken;
+        this.size = size;
+    }
+
+    public static SubscriptionIndex build(Collection<Subscription> subscriptions) {
+        Map<String, List<Entry>> byToken = new HashMap<>();
+        int size = 0;
+        for (Subscription subscription : subscriptions) {
+            Set<String> tokens = tokens(subscription.getProduct().getQuery());
+            if (tokens.isEmpty()) continue;
+            String anchor = null;
+            for (String token : tokens) {
+                if (anchor == null || token.length() > anchor.length()) anchor = token;
+            }
+            byToken.computeIfAbsent(anchor, k -> new ArrayList<>())
+                    .add(new Entry(subscription, tokens.toArray(new String[0])));
+            size++;
+        }
+        return new SubscriptionIndex(byToken, size);
+    }
+
+    /** Suscripciones cuyo texto está entero en el título y cuyas reglas acepta {@code listing}. */
+    public List<Subscription> match(String title, Listing listing) {
+        if (size == 0 || title == null) return List.of();
+        Set<String> titleTokens = tokens(title);
+        List<Subscription> matches = new ArrayList<>();
+        for (String token : titleTokens) {
+            List<Entry> candidates = byToken.get(token);
+            if (candidates == null) continue;
+            for (Entry entry : candidates) {
+                if (entry.matches(titleTokens) && entry.subscription.getProduct().getFilter().accepts(listing)) {
+                    matches.add(entry.subscription);
+                }
+            }
+        }
+        return matches;
+    }
+
+    public int size() { return size; }
+
+    /**
+     * Palabras en minúsculas y sin tildes ("Pokémon Z-A" → pokemon, z, a). Es el
+     * tokenizador de todas las consultas: agrupar, cachear y casar suscripciones.
+     */
+    public static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /** El texto en minúsculas y sin tildes. */
+    public static String fold(String text) {
+        return ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(Subscription subscription, String[] tokens) {
+        boolean matches(Set<String> titleTokens) {
+            for (String token : tokens) if (!titleTokens.contains(token)) return false;
+            return true;
+        }
+    }
+}
@@ -2,13 +2,25 @@ package com.saul.botwallapop.model;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.saul.botwallapop.store.NotifiedOfferStore;
+import com.saul.botwallapop.utils.OfferIds;
 
 public class BotState {
 
     private LocalDateTime lastCheck;
     private Set<String> authorizedUsers = new HashSet<>();
-    private Set<String> notifiedOfferUrls = new HashSet<>();
+    private final NotifiedOfferStore notifiedOffers;
+    private final Map<String, HighWaterMark> highWaterMarks = new ConcurrentHashMap<>();
+    // Ofertas ya encoladas cuyo envío aún no ha confirmado Telegram
+    private final Set<String> pendingOffers = ConcurrentHashMap.newKeySet();
+
+    public BotState(NotifiedOfferStore notifiedOffers) {
+        this.notifiedOffers = notifiedOffers;
+    }
 
     public LocalDateTime getLastCheck() { return lastCheck; }
     public void setLastCheck(LocalDateTime lastCheck) { this.lastCheck = lastCheck; }
@@ -17,14 +29,38 @@ public class BotState {
     public void addAuthorizedUser(String userId) { authorizedUsers.add(userId); }
     public boolean isUserAuthorized(String userId) { return authorizedUsers.contains(userId); }
 
-    // --- Control de ofertas notificadas ---
+    // --- Control de ofertas notificadas (por id compacto, persistido en disco) ---
+    // Se aceptan URLs (grupo principal) o ids de chat de OfferIds.scopedId (suscripciones).
+    // Una oferta pendiente de confirmación también cuenta como notificada para no encolarla dos veces
     public boolean isOfferNotified(String offerUrl) {
-        return notifiedOfferUrls.contains(offerUrl);
+        String id = OfferIds.dedupId(offerUrl);
+        return pendingOffers.contains(id) || notifiedOffers.contains(id);
     }
 
     public void markOfferAsNotified(String offerUrl) {
-        notifiedOfferUrls.add(offerUrl);
+        String id = OfferIds.dedupId(offerUrl);
+        notifiedOffers.add(id);
+        pendingOffers.remove(id);
+    }
+
+    public void markOfferPending(String offerUrl) {
+        pendingOffers.add(OfferIds.dedupId(offerUrl));
+    }
+
+    public void clearOfferPending(String offerUrl) {
+        pendingOffers.remove(OfferIds.dedupId(offerUrl));
+    }
+
+    public int getNotifiedOfferCount() { return notifiedOffers.size(); }
+
+    public String getNotifiedFilterStats() { return notifiedOffers.getBloomStats(); }
+
+    // --- Último anuncio visto por producto (búsqueda incremental) ---
+    public HighWaterMark getHighWaterMark(String productName) {
+        return highWaterMarks.get(productName);
     }
 
-    public Set<String> getNotifiedOffers() { return notifiedOfferUrls; }
+    public void setHighWaterMark(String productName, HighWaterMark mark) {
+        highWaterMarks.put(productName, mark);
+    }
 }
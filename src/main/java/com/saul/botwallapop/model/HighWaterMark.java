@@ -0,0 +1,56 @@
+package com.saul.botwallapop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Último anuncio visto para un producto en una búsqueda ordenada por novedad:
+ * clave del anuncio y su marca de tiempo (epoch ms, 0 si el backend no la da).
+ * Sin marca de tiempo se guardan las {@link #MAX_KEYS} claves más recientes, para
+ * que la búsqueda siga encontrando el punto de corte aunque el último anuncio se
+ * borre o cambie de posición.
+ */
+public class HighWaterMark {
+
+    public static final int MAX_KEYS = 5;
+
+    private final List<String> itemKeys;
+    private final long timestamp;
+
+    public HighWaterMark(String itemKey, long timestamp) {
+        this(itemKey != null ? List.of(itemKey) : List.of(), timestamp);
+    }
+
+    private HighWaterMark(List<String> itemKeys, long timestamp) {
+        this.itemKeys = itemKeys;
+        this.timestamp = timestamp;
+    }
+
+    /** Marca sin marca de tiempo con las claves dadas (de la más nueva a la más antigua), o null si no hay. */
+    public static HighWaterMark ofKeys(List<String> newestFirst) {
+        return newestFirst.isEmpty() ? null : new HighWaterMark(newestFirst, 0).withNewer(List.of());
+    }
+
+    /** Esta marca con {@code newestFirst} delante, conservando las {@link #MAX_KEYS} claves más nuevas. */
+    public HighWaterMark withNewer(List<String> newestFirst) {
+        List<String> keys = new ArrayList<>(MAX_KEYS);
+        for (String key : newestFirst) if (keys.size() < MAX_KEYS && !keys.contains(key)) keys.add(key);
+        for (String key : itemKeys) if (keys.size() < MAX_KEYS && !keys.contains(key)) keys.add(key);
+        return new HighWaterMark(List.copyOf(keys), timestamp);
+    }
+
+    public String getItemKey() { return itemKeys.isEmpty() ? null : itemKeys.get(0); }
+    public List<String> getItemKeys() { return itemKeys; }
+    public long getTimestamp() { return timestamp; }
+
+    /** true si el anuncio ya estaba visto en el escaneo anterior. */
+    public boolean isReachedBy(String key, long ts) {
+        if (key != null && itemKeys.contains(key)) return true;
+        return timestamp > 0 && ts > 0 && ts <= timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", itemKeys) + "@" + timestamp;
+    }
+}
@@ -0,0 +1,47 @@
+package com.saul.botwallapop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mensaje pendiente de envío tal como se guarda en la cola persistente, junto
+ * con las URLs de las ofertas que se darán por notificadas al confirmarse.
+ */
+public class OutboundMessage {
+    private String chatId;
+    private String text;
+    private String parseMode;
+    private boolean disableWebPagePreview;
+    private List<String> offerUrls = new ArrayList<>();
+    // Momento en que se detectó la oferta más antigua del mensaje (epoch ms)
+    private long detectedAt;
+
+    public OutboundMessage() {}
+
+    public OutboundMessage(String chatId, String text, String parseMode, boolean disableWebPagePreview,
+                           List<String> offerUrls) {
+        this.chatId = chatId;
+        this.text = text;
+        this.parseMode = parseMode;
+        this.disableWebPagePreview = disableWebPagePreview;
+        this.offerUrls = offerUrls;
+    }
+
+    public String getChatId() { return chatId; }
+    public void setChatId(String chatId) { this.chatId = chatId; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getParseMode() { return parseMode; }
+    public void setParseMode(String parseMode) { this.parseMode = parseMode; }
+
+    public boolean isDisableWebPagePreview() { return disableWebPagePreview; }
+    public void setDisableWebPagePreview(boolean disableWebPagePreview) { this.disableWebPagePreview = disableWebPagePreview; }
+
+    public List<String> getOfferUrls() { return offerUrls; }
+    public void setOfferUrls(List<String> offerUrls) { this.offerUrls = offerUrls; }
+
+    public long getDetectedAt() { return detectedAt; }
+    public void setDetectedAt(long detectedAt) { this.detectedAt = detectedAt; }
+}
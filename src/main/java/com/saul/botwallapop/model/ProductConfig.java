@@ -1,8 +1,31 @@
 package com.saul.botwallapop.model;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.saul.botwallapop.filter.OfferFilter;
+
 public class ProductConfig {
     private String name;
+    // Palabras de búsqueda si no coinciden con el nombre (búsquedas de suscripciones)
+    private String query;
+    // Precio máximo aceptado (el nombre se mantiene por compatibilidad)
     private double minPrice;
+
+    // Reglas opcionales
+    private double priceFrom;
+    private List<String> requiredKeywords = new ArrayList<>();
+    private List<String> excludedKeywords = new ArrayList<>();
+    private String titlePattern;
+    private double latitude;
+    private double longitude;
+    private double radiusKm;
+    private List<String> conditions = new ArrayList<>();
+    private boolean shippingRequired;
+    // Solo se envía en la búsqueda (el anuncio no trae la categoría al filtrar)
+    private List<String> categoryIds = new ArrayList<>();
+
+    private volatile OfferFilter filter;
     
     public ProductConfig() {}
     
@@ -13,9 +36,52 @@ public class ProductConfig {
     
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
+
+    public String getQuery() { return query != null ? query : name; }
+    public void setQuery(String query) { this.query = query; }
     
     public double getMinPrice() { return minPrice; }
-    public void setMinPrice(double minPrice) { this.minPrice = minPrice; }
+    public void setMinPrice(double minPrice) { this.minPrice = minPrice; filter = null; }
+
+    public double getPriceFrom() { return priceFrom; }
+    public void setPriceFrom(double priceFrom) { this.priceFrom = priceFrom; filter = null; }
+
+    public List<String> getRequiredKeywords() { return requiredKeywords; }
+    public void setRequiredKeywords(List<String> requiredKeywords) { this.requiredKeywords = requiredKeywords; filter = null; }
+
+    public List<String> getExcludedKeywords() { return excludedKeywords; }
+    public void setExcludedKeywords(List<String> excludedKeywords) { this.excludedKeywords = excludedKeywords; filter = null; }
+
+    public String getTitlePattern() { return titlePattern; }
+    public void setTitlePattern(String titlePattern) { this.titlePattern = titlePattern; filter = null; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; filter = null; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; filter = null; }
+
+    public double getRadiusKm() { return radiusKm; }
+    public void setRadiusKm(double radiusKm) { this.radiusKm = radiusKm; filter = null; }
+
+    public List<String> getConditions() { return conditions; }
+    public void setConditions(List<String> conditions) { this.conditions = conditions; filter = null; }
+
+    public boolean isShippingRequired() { return shippingRequired; }
+    public void setShippingRequired(boolean shippingRequired) { this.shippingRequired = shippingRequired; filter = null; }
+
+    public List<String> getCategoryIds() { return categoryIds; }
+    public void setCategoryIds(List<String> categoryIds) { this.categoryIds = categoryIds; }
+
+    /** Reglas compiladas; se compilan la primera vez que se piden. */
+    public OfferFilter getFilter() {
+        OfferFilter compiled = filter;
+        if (compiled == null) {
+            compiled = OfferFilter.compile(this);
+            filter = compiled;
+        }
+        return compiled;
+    }
     
     @Override
     public String toString() {
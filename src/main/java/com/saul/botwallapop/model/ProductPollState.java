@@ -0,0 +1,39 @@
+package com.saul.botwallapop.model;
+
+/**
+ * Estado de sondeo de un producto: ritmo de llegada de ofertas aprendido
+ * (media exponencial, ofertas/hora), intervalo actual y próxima consulta.
+ */
+public class ProductPollState implements Comparable<ProductPollState> {
+    private ProductConfig product;
+    private long nextDueAt;
+    private long lastPolledAt;
+    private long intervalMs;
+    private double ratePerHour;
+
+    public ProductPollState(ProductConfig product, long nextDueAt, long intervalMs) {
+        this.product = product;
+        this.nextDueAt = nextDueAt;
+        this.intervalMs = intervalMs;
+    }
+
+    public ProductConfig getProduct() { return product; }
+    public void setProduct(ProductConfig product) { this.product = product; }
+
+    public long getNextDueAt() { return nextDueAt; }
+    public void setNextDueAt(long nextDueAt) { this.nextDueAt = nextDueAt; }
+
+    public long getLastPolledAt() { return lastPolledAt; }
+    public void setLastPolledAt(long lastPolledAt) { this.lastPolledAt = lastPolledAt; }
+
+    public long getIntervalMs() { return intervalMs; }
+    public void setIntervalMs(long intervalMs) { this.intervalMs = intervalMs; }
+
+    public double getRatePerHour() { return ratePerHour; }
+    public void setRatePerHour(double ratePerHour) { this.ratePerHour = ratePerHour; }
+
+    @Override
+    public int compareTo(ProductPollState other) {
+        return Long.compare(nextDueAt, other.nextDueAt);
+    }
+}
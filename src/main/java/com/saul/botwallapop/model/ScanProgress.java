@@ -0,0 +1,21 @@
+package com.saul.botwallapop.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Avance de un escaneo en curso: productos terminados y ofertas nuevas enviadas hasta ahora. */
+public class ScanProgress {
+    private final int totalProducts;
+    private final AtomicInteger doneProducts = new AtomicInteger();
+    private final AtomicInteger newOffers = new AtomicInteger();
+
+    public ScanProgress(int totalProducts) {
+        this.totalProducts = totalProducts;
+    }
+
+    public void productDone() { doneProducts.incrementAndGet(); }
+    public void addNewOffers(int count) { newOffers.addAndGet(count); }
+
+    public int getTotalProducts() { return totalProducts; }
+    public int getDoneProducts() { return Math.min(doneProducts.get(), totalProducts); }
+    public int getNewOffers() { return newOffers.get(); }
+}
@@ -0,0 +1,29 @@
+package com.saul.botwallapop.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class ScanReport {
+    private final String trigger;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final Map<String, List<WallapopOffer>> newOffers;
+
+    public ScanReport(String trigger, LocalDateTime startedAt, LocalDateTime finishedAt,
+                      Map<String, List<WallapopOffer>> newOffers) {
+        this.trigger = trigger;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.newOffers = newOffers;
+    }
+
+    public String getTrigger() { return trigger; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public Map<String, List<WallapopOffer>> getNewOffers() { return newOffers; }
+
+    public int getTotalNewOffers() {
+        return newOffers.values().stream().mapToInt(List::size).sum();
+    }
+}
@@ -0,0 +1,98 @@
+package com.saul.botwallapop.model;
+
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Parámetros de búsqueda que filtra el propio Wallapop (rango de precio, orden,
+ * categoría, estado, zona y envío), comunes a la API y a la web. Las reglas del
+ * producto se siguen comprobando al leer cada anuncio por si el servidor las ignora.
+ */
+public class SearchParams {
+
+    /** Sin parámetros: la búsqueda trae todo lo que case con las palabras. */
+    public static final SearchParams NONE = new SearchParams(new LinkedHashMap<>());
+
+    private final Map<String, String> params;
+    private final String queryString;
+
+    private SearchParams(Map<String, String> params) {
+        this.params = params;
+        StringBuilder sb = new StringBuilder();
+        params.forEach((name, value) -> sb.append('&').append(name).append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        this.queryString = sb.toString();
+    }
+
+    public static SearchParams maxPrice(double maxPrice) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (maxPrice > 0 && maxPrice < Double.MAX_VALUE) params.put("max_sale_price", number(maxPrice));
+        return new SearchParams(params);
+    }
+
+    public static SearchParams forProduct(ProductConfig product) {
+        return forGroup(List.of(product));
+    }
+
+    /**
+     * Parámetros para buscar varios productos a la vez: el rango de precio cubre
+     * el de todos y el resto solo se envía si todos piden lo mismo.
+     */
+    public static SearchParams forGroup(List<ProductConfig> products) {
+        Map<String, String> params = new LinkedHashMap<>();
+        double from = Double.MAX_VALUE;
+        double to = 0;
+        boolean unbounded = false;
+        for (ProductConfig p : products) {
+            from = Math.min(from, p.getPriceFrom());
+            if (p.getMinPrice() > 0) to = Math.max(to, p.getMinPrice());
+            else unbounded = true;
+        }
+        if (from > 0 && from < Double.MAX_VALUE) params.put("min_sale_price", number(from));
+        if (!unbounded && to > 0) params.put("max_sale_price", number(to));
+
+        putIfShared(params, products, "category_ids", p -> String.join(",", p.getCategoryIds()));
+        putIfShared(params, products, "condition", p -> String.join(",", p.getConditions()));
+        putIfShared(params, products, "latitude", p -> p.getRadiusKm() > 0 ? number(p.getLatitude()) : "");
+        putIfShared(params, products, "longitude", p -> p.getRadiusKm() > 0 ? number(p.getLongitude()) : "");
+        putIfShared(params, products, "distance_in_km", p -> p.getRadiusKm() > 0 ? number(p.getRadiusKm()) : "");
+        putIfShared(params, products, "is_shippable", p -> p.isShippingRequired() ? "true" : "");
+        return new SearchParams(params);
+    }
+
+    /** Copia con el orden de resultados indicado ({@code newest}, {@code price_low_to_high}...). */
+    public SearchParams orderBy(String orderBy) {
+        if (orderBy == null || orderBy.isBlank()) return this;
+        Map<String, String> copy = new LinkedHashMap<>(params);
+        copy.put("order_by", orderBy);
+        return new SearchParams(copy);
+    }
+
+    /** Parámetros ya codificados, cada uno precedido de '&' (vacío si no hay ninguno). */
+    public String toQueryString() { return queryString; }
+
+    public Map<String, String> asMap() { return params; }
+
+    private static void putIfShared(Map<String, String> params, List<ProductConfig> products, String name,
+                                    Function<ProductConfig, String> value) {
+        String shared = value.apply(products.get(0));
+        if (shared.isEmpty()) return;
+        for (ProductConfig p : products) {
+            if (!Objects.equals(shared, value.apply(p))) return;
+        }
+        params.put(name, shared);
+    }
+
+    private static String number(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    @Override
+    public String toString() { return queryString; }
+}
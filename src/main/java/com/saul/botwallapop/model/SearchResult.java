@@ -0,0 +1,19 @@
+package com.saul.botwallapop.model;
+
+import java.util.List;
+
+public class SearchResult {
+    private final List<WallapopOffer> offers;
+    private final HighWaterMark newest;
+    private final int pages;
+
+    public SearchResult(List<WallapopOffer> offers, HighWaterMark newest, int pages) {
+        this.offers = offers;
+        this.newest = newest;
+        this.pages = pages;
+    }
+
+    public List<WallapopOffer> getOffers() { return offers; }
+    public HighWaterMark getNewest() { return newest; }
+    public int getPages() { return pages; }
+}
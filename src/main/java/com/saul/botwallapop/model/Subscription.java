@@ -0,0 +1,24 @@
+package com.saul.botwallapop.model;
+
+/**
+ * Búsqueda dada de alta desde un chat con /suscribir. {@code spec} tiene el mismo
+ * formato que los productos de la configuración ({@code nombre|precio[|reglas]}).
+ */
+public class Subscription {
+    private final long id;
+    private final long chatId;
+    private final String spec;
+    private final ProductConfig product;
+
+    public Subscription(long id, long chatId, String spec, ProductConfig product) {
+        this.id = id;
+        this.chatId = chatId;
+        this.spec = spec;
+        this.product = product;
+    }
+
+    public long getId() { return id; }
+    public long getChatId() { return chatId; }
+    public String getSpec() { return spec; }
+    public ProductConfig getProduct() { return product; }
+}
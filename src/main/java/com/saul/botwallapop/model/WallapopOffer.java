@@ -3,7 +3,12 @@ package com.saul.botwallapop.model;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import com.saul.botwallapop.utils.MarkdownEscaper;
+
 public class WallapopOffer {
+
+    private static final DateTimeFormatter MESSAGE_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     private String id;
     private String title;
     private String price;
@@ -11,6 +16,11 @@ public class WallapopOffer {
     private String imageUrl;
     private double priceValue;
     private LocalDateTime detectedAt;
+    // Datos para las reglas del producto (NaN / null si la fuente no los da)
+    private double latitude = Double.NaN;
+    private double longitude = Double.NaN;
+    private String condition;
+    private Boolean shippingAvailable;
     
     public WallapopOffer() {
     }
@@ -44,30 +54,31 @@ public class WallapopOffer {
     
     public LocalDateTime getDetectedAt() { return detectedAt; }
     public void setDetectedAt(LocalDateTime detectedAt) { this.detectedAt = detectedAt; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public String getCondition() { return condition; }
+    public void setCondition(String condition) { this.condition = condition; }
+
+    public Boolean getShippingAvailable() { return shippingAvailable; }
+    public void setShippingAvailable(Boolean shippingAvailable) { this.shippingAvailable = shippingAvailable; }
     
     public String toTelegramMessage() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        return String.format(
-            "🆕 *Oferta Encontrada*\n\n" +
-            "📦 %s\n" +
-            "💰 *%s*\n" +
-            "🔗 [Ver en Wallapop](%s)\n" +
-            "⏰ %s",
-            escapeMarkdown(title),
-            escapeMarkdown(price),
-            url,
-            detectedAt.format(formatter)
-        );
+        return appendTelegramMessage(new StringBuilder(192)).toString();
     }
-    
-    private String escapeMarkdown(String text) {
-        if (text == null) return "";
-        return text.replace("_", "\\_")
-                   .replace("*", "\\*")
-                   .replace("[", "\\[")
-                   .replace("]", "\\]")
-                   .replace("(", "\\(")
-                   .replace(")", "\\)")
-                   .replace("`", "\\`");
+
+    /** Escribe el mensaje de Telegram de la oferta al final de {@code sb} (se puede reutilizar el builder). */
+    public StringBuilder appendTelegramMessage(StringBuilder sb) {
+        sb.append("🆕 *Oferta Encontrada*\n\n📦 ");
+        MarkdownEscaper.escape(title, sb);
+        sb.append("\n💰 *");
+        MarkdownEscaper.escape(price, sb);
+        sb.append("*\n🔗 [Ver en Wallapop](").append(url).append(")\n⏰ ");
+        if (detectedAt != null) MESSAGE_DATE_FORMAT.formatTo(detectedAt, sb);
+        return sb;
     }
 }
@@ -0,0 +1,122 @@
+package com.saul.botwallapop.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.saul.botwallapop.config.PollingConfig;
+import com.saul.botwallapop.model.ProductConfig;
+import com.saul.botwallapop.model.ProductPollState;
+import com.saul.botwallapop.service.WallapopSearchService;
+
+/**
+ * Cola de prioridad por próxima consulta. Cada producto aprende su ritmo de
+ * llegada de ofertas (media exponencial) y su intervalo se ajusta para encontrar
+ * unas {@code targetOffersPerPoll} ofertas por consulta, dentro de [min, max].
+ */
+@Component
+public class AdaptivePollingScheduler {
+
+    private static final double MS_PER_HOUR = 3_600_000d;
+
+    private final PollingConfig config;
+    private final WallapopSearchService searchService;
+    private final long baseIntervalMs;
+
+    private final PriorityQueue<ProductPollState> queue = new PriorityQueue<>();
+    private final Map<String, ProductPollState> states = new HashMap<>();
+
+    public AdaptivePollingScheduler(PollingConfig config, WallapopSearchService searchService,
+                                    @Value("${wallapop.check.interval.minutes}") int checkIntervalMinutes) {
+        this.config = config;
+        this.searchService = searchService;
+        this.baseIntervalMs = TimeUnit.MINUTES.toMillis(checkIntervalMinutes);
+    }
+
+    /** Saca de la cola los productos que ya toca consultar. */
+    public synchronized List<ProductConfig> pollDue(long now) {
+        syncProducts(now);
+        List<ProductConfig> due = new ArrayList<>();
+        int max = config.getMaxProductsPerTick();
+        while (!queue.isEmpty() && queue.peek().getNextDueAt() <= now && (max <= 0 || due.size() < max)) {
+            due.add(queue.poll().getProduct());
+        }
+        return due;
+    }
+
+    /** Actualiza el ritmo aprendido con las ofertas nuevas encontradas y reprograma el producto. */
+    public synchronized void recordResult(String productName, int newOffers, long polledAt) {
+        ProductPollState state = states.get(productName);
+        if (state == null) return;
+        queue.remove(state);
+
+        // La primera consulta no tiene referencia temporal: solo fija el punto de partida
+        if (state.getLastPolledAt() > 0) {
+            double hours = Math.max(polledAt - state.getLastPolledAt(), 60_000) / MS_PER_HOUR;
+            double observed = newOffers / hours;
+            double alpha = config.getSmoothing();
+            state.setRatePerHour(alpha * observed + (1 - alpha) * state.getRatePerHour());
+            state.setIntervalMs(intervalFor(state.getRatePerHour()));
+        }
+        state.setLastPolledAt(polledAt);
+        state.setNextDueAt(polledAt + state.getIntervalMs());
+        queue.add(state);
+    }
+
+    /** Vuelve a encolar un producto cuya consulta falló, sin tocar su ritmo. */
+    public synchronized void reschedule(String productName, long now) {
+        ProductPollState state = states.get(productName);
+        if (state == null) return;
+        queue.remove(state);
+        state.setNextDueAt(now + state.getIntervalMs());
+        queue.add(state);
+    }
+
+    public synchronized List<ProductPollState> snapshot() {
+        List<ProductPollState> list = new ArrayList<>(states.values());
+        list.sort(null);
+        return list;
+    }
+
+    private long intervalFor(double ratePerHour) {
+        long min = TimeUnit.MINUTES.toMillis(config.getMinIntervalMinutes());
+        long max = TimeUnit.MINUTES.toMillis(config.getMaxIntervalMinutes());
+        if (!config.isAdaptive()) return baseIntervalMs;
+        if (ratePerHour <= 0) return max;
+        long interval = (long) (config.getTargetOffersPerPoll() / ratePerHour * MS_PER_HOUR);
+        return Math.max(min, Math.min(max, interval));
+    }
+
+    // Da de alta los productos nuevos (consulta inmediata), actualiza la configuración
+    // de los que siguen (sus reglas pueden haber cambiado) y olvida los que ya no existen
+    private void syncProducts(long now) {
+        Set<String> current = new HashSet<>();
+        for (ProductConfig product : searchService.getSearchTargets()) {
+            current.add(product.getName());
+            ProductPollState existing = states.get(product.getName());
+            if (existing != null) {
+                // Conserva el ritmo aprendido y la próxima consulta
+                existing.setProduct(product);
+                continue;
+            }
+            ProductPollState state = new ProductPollState(product, now, baseIntervalMs);
+            // Ritmo inicial: el que haría correcto el intervalo base
+            state.setRatePerHour(config.getTargetOffersPerPoll() * MS_PER_HOUR / baseIntervalMs);
+            states.put(product.getName(), state);
+            queue.add(state);
+        }
+        states.values().removeIf(state -> {
+            if (current.contains(state.getProduct().getName())) return false;
+            queue.remove(state);
+            return true;
+        });
+    }
+}
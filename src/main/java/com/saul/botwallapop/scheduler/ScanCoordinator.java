@@ -0,0 +1,277 @@
+package com.saul.botwallapop.scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.saul.botwallapop.config.DeliveryConfig;
+import com.saul.botwallapop.filter.OfferListing;
+import com.saul.botwallapop.model.BotState;
+import com.saul.botwallapop.model.ProductConfig;
+import com.saul.botwallapop.model.ScanProgress;
+import com.saul.botwallapop.model.ScanReport;
+import com.saul.botwallapop.model.Subscription;
+import com.saul.botwallapop.model.WallapopOffer;
+import com.saul.botwallapop.service.OfferSink;
+import com.saul.botwallapop.service.TelegramBotService;
+import com.saul.botwallapop.service.WallapopSearchService;
+import com.saul.botwallapop.store.OfferIndex;
+import com.saul.botwallapop.store.SubscriptionStore;
+import com.saul.botwallapop.utils.OfferIds;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Punto único de entrada para escanear. Solo hay un escaneo a la vez: si llega
+ * otra petición (programada o /buscar) mientras uno está en curso, se une a él
+ * y recibe su mismo resultado.
+ */
+@Component
+public class ScanCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ScanCoordinator.class);
+
+    private final BotState botState;
+    private final WallapopSearchService searchService;
+    private final TelegramBotService telegramBot;
+    private final AdaptivePollingScheduler pollingScheduler;
+    private final OfferIndex offerIndex;
+    private final SubscriptionStore subscriptions;
+    private final DeliveryConfig deliveryConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scan-coordinator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private CompletableFuture<ScanReport> inFlight;
+    private volatile LocalDateTime currentScanStartedAt;
+    private volatile ScanProgress currentProgress;
+    private volatile ScanReport lastReport;
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    // Bajadas de precio encoladas y aún sin confirmar: no se repiten mientras tanto
+    private final Set<Long> priceDropsInFlight = ConcurrentHashMap.newKeySet();
+
+    public ScanCoordinator(BotState botState, WallapopSearchService searchService, TelegramBotService telegramBot,
+                           AdaptivePollingScheduler pollingScheduler, OfferIndex offerIndex,
+                           SubscriptionStore subscriptions, DeliveryConfig deliveryConfig,
+                           MeterRegistry meterRegistry) {
+        this.botState = botState;
+        this.offerIndex = offerIndex;
+        this.subscriptions = subscriptions;
+        this.deliveryConfig = deliveryConfig;
+        this.meterRegistry = meterRegistry;
+        this.searchService = searchService;
+        this.telegramBot = telegramBot;
+        this.pollingScheduler = pollingScheduler;
+    }
+
+    /** Lanza un escaneo de todos los productos, o devuelve el que ya está en curso. */
+    public synchronized CompletableFuture<ScanReport> requestScan(String trigger) {
+        if (inFlight != null && !inFlight.isDone()) {
+            coalescedRequests.incrementAndGet();
+            log.info("⏳ Escaneo ya en curso, la petición '{}' se une a él", trigger);
+            return inFlight;
+        }
+        List<ProductConfig> products = searchService.getSearchTargets();
+        inFlight = searchService.whenBackendReady()
+                .thenApplyAsync(ignored -> runScan(trigger, products), executor);
+        return inFlight;
+    }
+
+    /**
+     * Escanea solo los productos a los que ya les toca según el sondeo adaptativo.
+     * El futuro da null si no hay ninguno pendiente o el backend aún está arrancando.
+     */
+    public synchronized CompletableFuture<ScanReport> requestDueScan() {
+        if (inFlight != null && !inFlight.isDone()) return inFlight;
+        if (!searchService.isBackendReady()) {
+            log.debug("⏳ El backend de búsqueda aún está arrancando, se espera a la siguiente ronda");
+            return CompletableFuture.completedFuture(null);
+        }
+        List<ProductConfig> due = pollingScheduler.pollDue(System.currentTimeMillis());
+        if (due.isEmpty()) return CompletableFuture.completedFuture(null);
+        inFlight = CompletableFuture.supplyAsync(() -> runScan("automático", due), executor);
+        // Nadie espera a este escaneo: el error se registra aquí, una sola vez
+        inFlight.whenComplete((report, error) -> {
+            if (error != null) log.error("❌ Error en el escaneo automático: {}", error.getMessage(), error);
+        });
+        return inFlight;
+    }
+
+    public synchronized boolean isScanInProgress() {
+        return inFlight != null && !inFlight.isDone();
+    }
+
+    public LocalDateTime getCurrentScanStartedAt() { return currentScanStartedAt; }
+
+    /** Avance del escaneo en curso, o null si no hay ninguno. */
+    public ScanProgress getCurrentProgress() { return currentProgress; }
+
+    public ScanReport getLastReport() { return lastReport; }
+
+    public long getCoalescedRequests() { return coalescedRequests.get(); }
+
+    private ScanReport runScan(String trigger, List<ProductConfig> products) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        currentScanStartedAt = startedAt;
+        ScanProgress progress = new ScanProgress(products.size());
+        currentProgress = progress;
+        long start = System.nanoTime();
+        Set<String> pending = new HashSet<>();
+        products.forEach(p -> pending.add(p.getName()));
+        log.info("🔍 Iniciando escaneo ({}) de {} productos...", trigger, products.size());
+        try {
+            // Las ofertas se envían según llega cada página, sin esperar al resto de productos
+            Map<String, List<WallapopOffer>> newOffersByProduct = new LinkedHashMap<>();
+            Set<Long> seenThisScan = new HashSet<>();
+            Set<Long> matchedThisScan = new HashSet<>();
+            Map<String, List<WallapopOffer>> results = searchService.searchProducts(products, new OfferSink() {
+                @Override
+                public void accept(String productName, List<WallapopOffer> page) {
+                    progress.addNewOffers(publish(productName, page, newOffersByProduct, seenThisScan,
+                            matchedThisScan));
+                }
+
+                @Override
+                public void productDone(String productName) {
+                    progress.productDone();
+                }
+            });
+
+            // Aquí ya han terminado todas las búsquedas
+            long now = System.currentTimeMillis();
+            for (String productName : results.keySet()) {
+                int found = newOffersByProduct.getOrDefault(productName, List.of()).size();
+                pollingScheduler.recordResult(productName, found, now);
+                pending.remove(productName);
+            }
+
+            botState.setLastCheck(LocalDateTime.now());
+            ScanReport report = new ScanReport(trigger, startedAt, LocalDateTime.now(), newOffersByProduct);
+            lastReport = report;
+            log.info("✅ Escaneo finalizado. Total nuevas ofertas enviadas: {}", report.getTotalNewOffers());
+            return report;
+        } finally {
+            // Los que fallaron vuelven a la cola sin alterar su ritmo
+            long now = System.currentTimeMillis();
+            pending.forEach(name -> pollingScheduler.reschedule(name, now));
+            currentScanStartedAt = null;
+            currentProgress = null;
+            meterRegistry.timer("wallapop.scan.duration", "trigger", trigger)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Filtra y encola una página de resultados; se llama desde los hilos de búsqueda.
+     * Un mismo anuncio encontrado por varios productos en el mismo escaneo solo se
+     * procesa con el primero. Los anuncios ya notificados solo se vuelven a enviar
+     * si su precio ha bajado lo suficiente desde el último aviso. Además, cada
+     * anuncio se reparte (una vez por escaneo) entre las suscripciones que lo
+     * quieren. Qué enviar se decide bajo el candado del escaneo; el envío (que puede
+     * esperar a que se vacíe la cola) se hace fuera. Devuelve cuántas ofertas nuevas
+     * se han encolado.
+     */
+    private int publish(String productName, List<WallapopOffer> page,
+                         Map<String, List<WallapopOffer>> newOffersByProduct, Set<Long> seenThisScan,
+                         Set<Long> matchedThisScan) {
+        Map<Subscription, List<WallapopOffer>> bySubscription = new LinkedHashMap<>();
+        List<WallapopOffer> matched = new ArrayList<>();
+        List<WallapopOffer> newOffers = new ArrayList<>();
+        List<WallapopOffer> priceDrops = new ArrayList<>();
+        List<Double> previousPrices = new ArrayList<>();
+        boolean searchTarget = SubscriptionStore.isSearchTarget(productName);
+        synchronized (newOffersByProduct) {
+            matchSubscriptions(page, matchedThisScan, bySubscription, matched);
+            // Las búsquedas de suscripciones no van al grupo principal
+            if (!searchTarget) {
+                long now = System.currentTimeMillis();
+                for (WallapopOffer offer : page) {
+                    long key = OfferIds.numericKey(offer.getUrl());
+                    if (!seenThisScan.add(key)) continue;
+                    double lastNotified = offerIndex.observe(key, offer.getPriceValue(), now);
+                    if (!botState.isOfferNotified(offer.getUrl())) {
+                        newOffers.add(offer);
+                    } else if (lastNotified < 0) {
+                        // Notificado antes de existir el índice: su precio actual sirve de referencia
+                        offerIndex.markNotified(key, offer.getPriceValue());
+                    } else if (isPriceDrop(lastNotified, offer.getPriceValue()) && priceDropsInFlight.add(key)) {
+                        priceDrops.add(offer);
+                        previousPrices.add(lastNotified);
+                    }
+                }
+            }
+        }
+
+        bySubscription.forEach(telegramBot::sendSubscriptionOffers);
+        // El precio de referencia solo se mueve cuando Telegram confirma el aviso
+        List<WallapopOffer> queued = newOffers.isEmpty() ? List.of() : telegramBot.sendOffers(productName, newOffers,
+                o -> offerIndex.markNotified(OfferIds.numericKey(o.getUrl()), o.getPriceValue()));
+        for (int i = 0; i < priceDrops.size(); i++) {
+            WallapopOffer offer = priceDrops.get(i);
+            long key = OfferIds.numericKey(offer.getUrl());
+            boolean sent = telegramBot.sendPriceDrop(productName, offer, previousPrices.get(i), () -> {
+                offerIndex.markNotified(key, offer.getPriceValue());
+                priceDropsInFlight.remove(key);
+            }, () -> priceDropsInFlight.remove(key));
+            if (sent) meterRegistry.counter("wallapop.offer.price.drops").increment();
+            else priceDropsInFlight.remove(key);
+        }
+
+        // Para el sondeo adaptativo, lo encontrado por una búsqueda de suscripciones cuenta como suyo
+        List<WallapopOffer> counted = searchTarget ? matched : queued;
+        if (counted.isEmpty()) return 0;
+        synchronized (newOffersByProduct) {
+            newOffersByProduct.computeIfAbsent(productName, k -> new ArrayList<>()).addAll(counted);
+        }
+        return counted.size();
+    }
+
+    // Una sola pasada por el índice de suscripciones para cada anuncio, lo haya encontrado quien lo haya encontrado
+    private void matchSubscriptions(List<WallapopOffer> page, Set<Long> matchedThisScan,
+                                    Map<Subscription, List<WallapopOffer>> bySubscription,
+                                    List<WallapopOffer> matched) {
+        var index = subscriptions.getIndex();
+        if (index.size() == 0) return;
+        OfferListing listing = new OfferListing();
+        for (WallapopOffer offer : page) {
+            if (!matchedThisScan.add(OfferIds.numericKey(offer.getUrl()))) continue;
+            boolean isNew = false;
+            for (Subscription subscription : index.match(offer.getTitle(), listing.reset(offer))) {
+                if (botState.isOfferNotified(OfferIds.scopedId(subscription.getChatId(), offer.getUrl()))) continue;
+                bySubscription.computeIfAbsent(subscription, k -> new ArrayList<>()).add(offer);
+                isNew = true;
+            }
+            if (isNew) matched.add(offer);
+        }
+    }
+
+    private boolean isPriceDrop(double lastNotified, double price) {
+        if (!deliveryConfig.isPriceDrops() || price <= 0) return false;
+        return price <= lastNotified * (1 - deliveryConfig.getPriceDropMinPercent() / 100);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
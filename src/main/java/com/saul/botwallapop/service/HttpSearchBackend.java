@@ -0,0 +1,184 @@
+package com.saul.botwallapop.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saul.botwallapop.config.SearchConfig;
+import com.saul.botwallapop.filter.JsonListing;
+import com.saul.botwallapop.filter.OfferFilter;
+import com.saul.botwallapop.model.HighWaterMark;
+import com.saul.botwallapop.model.SearchParams;
+import com.saul.botwallapop.model.SearchResult;
+import com.saul.botwallapop.model.WallapopOffer;
+import com.saul.botwallapop.utils.HostPacer;
+
+/**
+ * Busca directamente contra el endpoint JSON de búsqueda, paginando por cursor
+ * ({@code next_page}). No necesita navegador.
+ */
+public class HttpSearchBackend implements SearchBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpSearchBackend.class);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
+            + "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36";
+
+    private final ObjectMapper objectMapper;
+    private final SearchConfig config;
+    private final HttpClient httpClient;
+    private final HostPacer pacer;
+    private final SearchMetrics metrics;
+
+    public HttpSearchBackend(ObjectMapper objectMapper, SearchConfig config, HostPacer pacer, MeterRegistry registry) {
+        this(objectMapper, config, pacer, registry, HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build());
+    }
+
+    public HttpSearchBackend(ObjectMapper objectMapper, SearchConfig config, HostPacer pacer, MeterRegistry registry,
+                             HttpClient httpClient) {
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.pacer = pacer;
+        this.metrics = new SearchMetrics(registry, getName());
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public String getName() { return "http"; }
+
+    @Override
+    public SearchResult search(String query, SearchParams params, OfferFilter filter, HighWaterMark since,
+                               Consumer<List<WallapopOffer>> pageSink) {
+        long start = System.nanoTime();
+        List<WallapopOffer> offers = new ArrayList<>();
+        HighWaterMark newest = null;
+        boolean reachedKnown = false;
+        String nextPage = null;
+        int pages = 0;
+        JsonListing listing = new JsonListing();
+
+        do {
+            JsonNode root = fetchPage(query, params, nextPage);
+            List<WallapopOffer> pageOffers = new ArrayList<>();
+            for (JsonNode item : items(root)) {
+                String key = itemKey(item);
+                if (key == null) continue;
+                long ts = timestamp(item);
+                if (newest == null) newest = new HighWaterMark(key, ts);
+                if (since != null && since.isReachedBy(key, ts)) {
+                    reachedKnown = true;
+                    break;
+                }
+                metrics.itemsExtracted.increment();
+                String rejected = filter.rejectReason(listing.reset(item));
+                if (rejected == null) pageOffers.add(toOffer(item, key, listing));
+                else metrics.filtered(rejected).increment();
+            }
+            offers.addAll(pageOffers);
+            if (!pageOffers.isEmpty()) pageSink.accept(pageOffers);
+            nextPage = root.path("meta").path("next_page").asText(null);
+            pages++;
+        } while (!reachedKnown && nextPage != null && !nextPage.isBlank() && pages < config.getMaxPages());
+
+        metrics.pages.record(pages);
+        metrics.searchTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("🌐 '{}': {} páginas leídas por HTTP", query, pages);
+        return new SearchResult(offers, newest != null ? newest : since, pages);
+    }
+
+    // El cursor next_page ya lleva los parámetros de la primera petición
+    private JsonNode fetchPage(String query, SearchParams params, String nextPage) {
+        String url = config.getApiUrl() + (nextPage == null
+                ? "?keywords=" + URLEncoder.encode(query, StandardCharsets.UTF_8) + "&source=search_box"
+                        + params.toQueryString()
+                : "?next_page=" + URLEncoder.encode(nextPage, StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .header("Accept", "application/json")
+                .header("Accept-Language", "es-ES")
+                .header("User-Agent", USER_AGENT)
+                .header("X-DeviceOS", "0")
+                .GET()
+                .build();
+
+        try {
+            if (nextPage == null) pacer.acquire(url); // el ritmo por host se aplica por búsqueda
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            metrics.pageLoadTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (response.statusCode() != 200) {
+                throw new SearchException("HTTP " + response.statusCode() + " en " + url);
+            }
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new SearchException("Error leyendo " + url + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SearchException("Búsqueda interrumpida", e);
+        }
+    }
+
+    private static JsonNode items(JsonNode root) {
+        JsonNode items = root.path("data").path("section").path("payload").path("items");
+        if (items.isArray()) return items;
+        return root.path("search_objects"); // formato antiguo de la API
+    }
+
+    private static String itemKey(JsonNode item) {
+        String slug = item.path("web_slug").asText(null);
+        return slug != null ? slug : item.path("id").asText(null);
+    }
+
+    private static long timestamp(JsonNode item) {
+        long modified = item.path("modified_at").asLong(0);
+        return modified > 0 ? modified : item.path("created_at").asLong(0);
+    }
+
+    private WallapopOffer toOffer(JsonNode item, String key, JsonListing listing) {
+        double price = listing.price();
+        String url = config.getWebUrl() + "/item/" + key;
+
+        WallapopOffer offer = new WallapopOffer(item.path("id").asText(null), item.path("title").asText(""),
+                formatPrice(price), url, price);
+        offer.setImageUrl(imageUrl(item.path("images")));
+        offer.setLatitude(listing.latitude());
+        offer.setLongitude(listing.longitude());
+        offer.setCondition(listing.condition());
+        offer.setShippingAvailable(listing.shippingAvailable());
+        return offer;
+    }
+
+    private static String imageUrl(JsonNode images) {
+        if (!images.isArray() || images.isEmpty()) return "";
+        JsonNode first = images.get(0);
+        JsonNode urls = first.has("urls") ? first.path("urls") : first;
+        return urls.path("medium").asText(urls.path("original").asText(""));
+    }
+
+    static String formatPrice(double price) {
+        return price == Math.rint(price)
+                ? String.format(Locale.forLanguageTag("es-ES"), "%.0f €", price)
+                : String.format(Locale.forLanguageTag("es-ES"), "%.2f €", price);
+    }
+}
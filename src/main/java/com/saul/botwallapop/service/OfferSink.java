@@ -0,0 +1,21 @@
+package com.saul.botwallapop.service;
+
+import java.util.List;
+
+import com.saul.botwallapop.model.WallapopOffer;
+
+/**
+ * Recibe las ofertas de un producto a medida que se leen, página a página,
+ * sin esperar a que termine el escaneo. Se llama desde los hilos de búsqueda
+ * y puede bloquear para frenar la búsqueda si la cola de envío está llena.
+ */
+@FunctionalInterface
+public interface OfferSink {
+
+    OfferSink NONE = (productName, offers) -> {};
+
+    void accept(String productName, List<WallapopOffer> offers);
+
+    /** El producto ha terminado de buscarse (con o sin ofertas, o con error). */
+    default void productDone(String productName) {}
+}
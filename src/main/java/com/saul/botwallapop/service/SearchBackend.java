@@ -0,0 +1,32 @@
+package com.saul.botwallapop.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.saul.botwallapop.filter.OfferFilter;
+import com.saul.botwallapop.model.HighWaterMark;
+import com.saul.botwallapop.model.SearchParams;
+import com.saul.botwallapop.model.SearchResult;
+import com.saul.botwallapop.model.WallapopOffer;
+
+/**
+ * Fuente de resultados de búsqueda de Wallapop (API JSON, navegador...).
+ * {@code params} va en la petición para que el servidor filtre y ordene; las reglas de {@code filter} se aplican al leer cada anuncio, antes de crear la oferta.
+ * Con {@code since} distinto de null la búsqueda es incremental: deja de paginar
+ * al llegar a un anuncio ya visto. Lanza {@link SearchException} si no puede
+ * completar la búsqueda. Cada página leída se entrega a {@code pageSink} en cuanto
+ * se parsea.
+ */
+public interface SearchBackend {
+
+    String getName();
+
+    default SearchResult search(String query, double maxPrice, HighWaterMark since) {
+        return search(query, SearchParams.maxPrice(maxPrice), OfferFilter.maxPrice(maxPrice), since, page -> {});
+    }
+
+    SearchResult search(String query, SearchParams params, OfferFilter filter, HighWaterMark since,
+                        Consumer<List<WallapopOffer>> pageSink);
+
+    default void close() {}
+}
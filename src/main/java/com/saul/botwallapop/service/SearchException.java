@@ -0,0 +1,12 @@
+package com.saul.botwallapop.service;
+
+public class SearchException extends RuntimeException {
+
+    public SearchException(String message) {
+        super(message);
+    }
+
+    public SearchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
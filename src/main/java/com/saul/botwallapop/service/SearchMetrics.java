@@ -0,0 +1,53 @@
+package com.saul.botwallapop.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/** Métricas de un backend de búsqueda, etiquetadas con su nombre. */
+public class SearchMetrics {
+
+    final Timer searchTime;
+    final Timer pageLoadTime;
+    final DistributionSummary pages;
+    final DistributionSummary pageBytes;
+    final DistributionSummary scrolls;
+    final DistributionSummary loadMoreClicks;
+    final Counter itemsExtracted;
+    private final MeterRegistry registry;
+    private final String backend;
+    private final Map<String, Counter> filtered = new ConcurrentHashMap<>();
+
+    public SearchMetrics(MeterRegistry registry, String backend) {
+        this.searchTime = Timer.builder("wallapop.search.duration")
+                .description("Duración de una búsqueda de producto")
+                .tag("backend", backend).publishPercentileHistogram().register(registry);
+        this.pageLoadTime = Timer.builder("wallapop.search.page.load")
+                .description("Tiempo de carga de una página de resultados")
+                .tag("backend", backend).register(registry);
+        this.pages = DistributionSummary.builder("wallapop.search.pages")
+                .description("Páginas leídas por búsqueda").tag("backend", backend).register(registry);
+        this.pageBytes = DistributionSummary.builder("wallapop.search.page.bytes")
+                .description("Bytes descargados por búsqueda en el navegador").baseUnit("bytes")
+                .tag("backend", backend).register(registry);
+        this.scrolls = DistributionSummary.builder("wallapop.search.scrolls")
+                .description("Iteraciones de scroll por búsqueda").tag("backend", backend).register(registry);
+        this.loadMoreClicks = DistributionSummary.builder("wallapop.search.load_more.clicks")
+                .description("Clicks en 'Cargar más' por búsqueda").tag("backend", backend).register(registry);
+        this.itemsExtracted = Counter.builder("wallapop.search.items.extracted")
+                .description("Anuncios leídos de los resultados").tag("backend", backend).register(registry);
+        this.registry = registry;
+        this.backend = backend;
+    }
+
+    /** Anuncios descartados por las reglas del producto, etiquetados con la regla. */
+    Counter filtered(String reason) {
+        return filtered.computeIfAbsent(reason, r -> Counter.builder("wallapop.search.items.filtered")
+                .description("Anuncios descartados por las reglas del producto")
+                .tag("backend", backend).tag("reason", r).register(registry));
+    }
+}
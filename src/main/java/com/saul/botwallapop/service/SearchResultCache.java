@@ -0,0 +1,129 @@
+package com.saul.botwallapop.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.saul.botwallapop.model.SearchResult;
+import com.saul.botwallapop.model.WallapopOffer;
+
+/**
+ * Caché de resultados de búsqueda con caducidad corta y tamaño máximo (LRU).
+ * Si llega una búsqueda idéntica mientras otra está en curso, espera a la
+ * primera y recibe su mismo resultado en lugar de volver a cargar la página.
+ */
+public class SearchResultCache {
+
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+    private final Map<String, CompletableFuture<SearchResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public SearchResultCache(long ttlMs, int maxEntries, MeterRegistry registry) {
+        this.ttlMs = ttlMs;
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = registry.counter("wallapop.search.cache", "result", "hit");
+        this.misses = registry.counter("wallapop.search.cache", "result", "miss");
+        this.coalesced = registry.counter("wallapop.search.cache", "result", "coalesced");
+    }
+
+    /**
+     * Devuelve el resultado en caché para {@code key} o lo carga con {@code loader}.
+     * Las páginas llegan a {@code pageSink} según se cargan; si el resultado viene
+     * de la caché o de otra búsqueda en curso se entrega de una vez.
+     */
+    public SearchResult getOrLoad(String key, Consumer<List<WallapopOffer>> pageSink,
+                                  Function<Consumer<List<WallapopOffer>>, SearchResult> loader) {
+        SearchResult cached = getFresh(key);
+        if (cached != null) {
+            hits.increment();
+            deliver(cached, pageSink);
+            return cached;
+        }
+
+        CompletableFuture<SearchResult> mine = new CompletableFuture<>();
+        CompletableFuture<SearchResult> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            SearchResult shared = join(running);
+            deliver(shared, pageSink);
+            return shared;
+        }
+
+        try {
+            // Puede haberse guardado entre la primera consulta y el putIfAbsent
+            SearchResult stored = getFresh(key);
+            if (stored != null) {
+                hits.increment();
+                deliver(stored, pageSink);
+                mine.complete(stored);
+                return stored;
+            }
+            misses.increment();
+            SearchResult result = loader.apply(pageSink);
+            if (ttlMs > 0) {
+                synchronized (entries) {
+                    entries.put(key, new Entry(result, System.currentTimeMillis() + ttlMs));
+                }
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private SearchResult getFresh(String key) {
+        if (ttlMs <= 0) return null;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) return null;
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.result;
+        }
+    }
+
+    private static SearchResult join(CompletableFuture<SearchResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static void deliver(SearchResult result, Consumer<List<WallapopOffer>> pageSink) {
+        if (!result.getOffers().isEmpty()) pageSink.accept(result.getOffers());
+    }
+
+    private record Entry(SearchResult result, long expiresAt) {}
+}
@@ -0,0 +1,296 @@
+package com.saul.botwallapop.service;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saul.botwallapop.config.SearchConfig;
+import com.saul.botwallapop.filter.JsonListing;
+import com.saul.botwallapop.filter.OfferFilter;
+import com.saul.botwallapop.model.HighWaterMark;
+import com.saul.botwallapop.model.SearchParams;
+import com.saul.botwallapop.model.SearchResult;
+import com.saul.botwallapop.model.WallapopOffer;
+import com.saul.botwallapop.utils.HostPacer;
+import com.saul.botwallapop.utils.OfferIds;
+import com.saul.botwallapop.utils.SeleniumUtils;
+
+/**
+ * Scraping con ChromeDriver: carga la web, hace scroll pulsando "Cargar más"
+ * y extrae las tarjetas del DOM con un único script. Lento, se mantiene como respaldo.
+ */
+public class SeleniumSearchBackend implements SearchBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(SeleniumSearchBackend.class);
+
+    /**
+     * Devuelve un JSON con {@code id, title, price, url, imageUrl} de cada tarjeta,
+     * en orden de aparición y sin repetir URL.
+     */
+    private static final String EXTRACT_CARDS_SCRIPT = """
+            const seen = new Set();
+            const cards = [];
+            for (const a of document.querySelectorAll("a[href*='/item/']")) {
+              const url = a.href;
+              if (seen.has(url)) continue;
+              seen.add(url);
+              const title = a.querySelector('h3');
+              const price = a.querySelector("strong[aria-label='Item price']");
+              const img = a.querySelector('img');
+              const slug = url.split('/item/')[1].split(/[?#/]/)[0];
+              const tail = slug.substring(slug.lastIndexOf('-') + 1);
+              cards.push({
+                id: a.dataset.itemId || (/^\\d{6,}$/.test(tail) ? tail : null),
+                title: title ? title.textContent.trim() : '',
+                price: price ? price.textContent.trim() : '',
+                url: url,
+                imageUrl: img ? (img.currentSrc || img.src || '') : ''
+              });
+            }
+            return JSON.stringify(cards);
+            """;
+
+    private static final String CARD_COUNT_SCRIPT = "return document.querySelectorAll(\"a[href*='/item/']\").length;";
+
+    /**
+     * Script asíncrono: responde en cuanto hay más tarjetas que {@code arguments[0]}
+     * (MutationObserver) o, como muy tarde, a los {@code arguments[1]} ms.
+     */
+    private static final String WAIT_FOR_CARDS_SCRIPT = """
+            const previous = arguments[0];
+            const timeoutMs = arguments[1];
+            const done = arguments[arguments.length - 1];
+            const count = () => document.querySelectorAll("a[href*='/item/']").length;
+            if (count() > previous) { done(count()); return; }
+            let timer;
+            const observer = new MutationObserver(() => {
+              const current = count();
+              if (current > previous) {
+                observer.disconnect();
+                clearTimeout(timer);
+                done(current);
+              }
+            });
+            timer = setTimeout(() => { observer.disconnect(); done(count()); }, timeoutMs);
+            observer.observe(document.body, { childList: true, subtree: true });
+            """;
+
+    private static final String CONSENT_COOKIE = "OptanonAlertBoxClosed";
+
+    // Bytes transferidos por la página (documento + recursos), según la Resource Timing API
+    private static final String TRANSFERRED_BYTES_SCRIPT = """
+            let total = 0;
+            for (const e of performance.getEntriesByType('navigation')) total += e.transferSize || 0;
+            for (const e of performance.getEntriesByType('resource')) total += e.transferSize || 0;
+            return total;
+            """;
+
+    private final SearchConfig config;
+    private final ObjectMapper objectMapper;
+    private final WebDriverPool pool;
+    private final HostPacer pacer;
+    private final SearchMetrics metrics;
+
+    public SeleniumSearchBackend(ObjectMapper objectMapper, SearchConfig config, HostPacer pacer, MeterRegistry registry) {
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.pacer = pacer;
+        this.metrics = new SearchMetrics(registry, getName());
+        this.pool = new WebDriverPool(slot -> SeleniumUtils.createSearchDriver(config, slot),
+                config.getDriverPoolSize(), config.getDriverMaxUses(), 120_000);
+    }
+
+    @Override
+    public String getName() { return "selenium"; }
+
+    public void initWebDriver() {
+        pool.warmUp();
+    }
+
+    @Override
+    public SearchResult search(String query, SearchParams params, OfferFilter filter, HighWaterMark since,
+                               Consumer<List<WallapopOffer>> pageSink) {
+        SearchResult result;
+        try {
+            result = metrics.searchTime.record(
+                    () -> pool.withDriver(driver -> search(driver, query, params, filter, since)));
+        } catch (WebDriverException e) {
+            // El pool ya ha visto la excepción original y ha descartado la sesión
+            throw new SearchException("Error en búsqueda con WebDriver: " + e.getMessage(), e);
+        }
+        // La página se extrae de una vez al final del scroll: se entrega entera
+        if (!result.getOffers().isEmpty()) pageSink.accept(result.getOffers());
+        return result;
+    }
+
+    private SearchResult search(WebDriver driver, String query, SearchParams params, OfferFilter filter,
+                                HighWaterMark since) {
+        List<WallapopOffer> offers = new ArrayList<>();
+        HighWaterMark newest = null;
+        int scrollAttempts = 0;
+        int clicks = 0;
+        try {
+            String searchUrl = config.getWebUrl() + "/app/search?keywords="
+                    + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                    + params.toQueryString();
+            pacer.acquire(searchUrl);
+            long loadStart = System.nanoTime();
+            driver.get(searchUrl);
+            metrics.pageLoadTime.record(System.nanoTime() - loadStart, TimeUnit.NANOSECONDS);
+
+            // --- Aceptar cookies (el perfil persistente ya recuerda el consentimiento) ---
+            if (driver.manage().getCookieNamed(CONSENT_COOKIE) == null) {
+                try {
+                    WebDriverWait waitCookies = new WebDriverWait(driver, Duration.ofSeconds(5));
+                    WebElement cookieBtn = waitCookies.until(
+                        d -> d.findElement(By.id("onetrust-accept-btn-handler"))
+                    );
+                    cookieBtn.click();
+                    log.info("🍪 Cookies aceptadas automáticamente");
+                } catch (Exception ignored) {}
+            }
+
+            // --- Scroll infinito con "Cargar más" ---
+            // Se espera a que aparezcan tarjetas nuevas en vez de dormir un tiempo fijo
+            JavascriptExecutor js = (JavascriptExecutor) driver;
+            driver.manage().timeouts().scriptTimeout(Duration.ofMillis(config.getScrollWaitTimeoutMs() + 5000));
+            int maxScrollAttempts = config.getMaxPages(); // número máximo de intentos
+            int cards = cardCount(js);
+            boolean moreResults = true;
+
+            while (scrollAttempts < maxScrollAttempts && moreResults) {
+                // En modo incremental basta con llegar al último anuncio ya visto
+                if (since != null && isKnownItemLoaded(driver, since)) break;
+
+                // Hacer scroll hasta el final
+                js.executeScript("window.scrollTo(0, document.body.scrollHeight);");
+                int loaded = waitForMoreCards(js, cards);
+                moreResults = loaded > cards;
+                cards = loaded;
+                politenessPause();
+
+                // Buscar botón "Cargar más" y clickearlo si existe
+                try {
+                    List<WebElement> loadBtns = driver.findElements(By.cssSelector("walla-button"));
+                    for (WebElement btn : loadBtns) {
+                        if (btn.isDisplayed() && btn.getText().contains("Cargar más")) {
+                            btn.click(); // Selenium hace click real
+                            moreResults = true;
+                            clicks++;
+                            log.info("➡️ Pulsado 'Cargar más'");
+                            cards = waitForMoreCards(js, cards);
+                            politenessPause();
+                            break; // solo clickear uno por iteración
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception ignored) {}
+
+                scrollAttempts++;
+            }
+
+            // --- Extraer productos (una sola llamada al navegador) ---
+            JsonListing listing = new JsonListing();
+            List<String> newestKeys = new ArrayList<>();
+            for (JsonNode card : extractCards(js)) {
+                String url = card.path("url").asText();
+                String key = OfferIds.itemKey(url);
+                if (since != null && since.isReachedBy(key, 0)) break;
+                if (key != null && newestKeys.size() < HighWaterMark.MAX_KEYS) newestKeys.add(key);
+
+                metrics.itemsExtracted.increment();
+                String rejected = filter.rejectReason(listing.reset(card));
+                if (rejected != null) {
+                    metrics.filtered(rejected).increment();
+                    continue;
+                }
+                WallapopOffer offer = new WallapopOffer(card.path("id").asText(null), card.path("title").asText(""),
+                        card.path("price").asText(""), url, listing.price());
+                offer.setImageUrl(card.path("imageUrl").asText(""));
+                offers.add(offer);
+            }
+            // Sin marca de tiempo: se guardan varias claves por si la más nueva desaparece
+            newest = since != null ? since.withNewer(newestKeys) : HighWaterMark.ofKeys(newestKeys);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SearchException("Búsqueda interrumpida", e);
+        } catch (WebDriverException e) {
+            throw e; // el pool descarta la sesión; se envuelve al salir de search()
+        } catch (Exception e) {
+            throw new SearchException("Error en búsqueda con WebDriver: " + e.getMessage(), e);
+        } finally {
+            recordTransferredBytes(driver);
+            metrics.scrolls.record(scrollAttempts);
+            metrics.loadMoreClicks.record(clicks);
+        }
+
+        return new SearchResult(offers, newest != null ? newest : since, scrollAttempts + 1);
+    }
+
+    // Lee todas las tarjetas con un único script y parsea el JSON resultante
+    private JsonNode extractCards(JavascriptExecutor js) throws IOException {
+        Object json = js.executeScript(EXTRACT_CARDS_SCRIPT);
+        if (!(json instanceof String payload) || payload.isEmpty()) return objectMapper.createArrayNode();
+        return objectMapper.readTree(payload);
+    }
+
+    private static int cardCount(JavascriptExecutor js) {
+        Object count = js.executeScript(CARD_COUNT_SCRIPT);
+        return count instanceof Number n ? n.intValue() : 0;
+    }
+
+    private int waitForMoreCards(JavascriptExecutor js, int previous) {
+        Object count = js.executeAsyncScript(WAIT_FOR_CARDS_SCRIPT, previous, config.getScrollWaitTimeoutMs());
+        return count instanceof Number n ? n.intValue() : previous;
+    }
+
+    // Pausa mínima de cortesía entre acciones, independiente de lo rápido que responda la web
+    private void politenessPause() throws InterruptedException {
+        long pause = config.getPolitenessMinMs();
+        if (config.getPolitenessJitterMs() > 0) pause += ThreadLocalRandom.current().nextLong(config.getPolitenessJitterMs());
+        if (pause > 0) Thread.sleep(pause);
+    }
+
+    private void recordTransferredBytes(WebDriver driver) {
+        try {
+            Object bytes = ((JavascriptExecutor) driver).executeScript(TRANSFERRED_BYTES_SCRIPT);
+            if (bytes instanceof Number n) metrics.pageBytes.record(n.doubleValue());
+        } catch (RuntimeException ignored) {}
+    }
+
+    // Basta con que aparezca cualquiera de las claves recientes de la marca
+    private static boolean isKnownItemLoaded(WebDriver driver, HighWaterMark since) {
+        List<String> selectors = new ArrayList<>();
+        for (String key : since.getItemKeys()) {
+            if (key.indexOf('\'') < 0) selectors.add("a[href*='/item/" + key + "']");
+        }
+        if (selectors.isEmpty()) return false;
+        return !driver.findElements(By.cssSelector(String.join(", ", selectors))).isEmpty();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
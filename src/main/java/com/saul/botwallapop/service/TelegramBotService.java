@@ -1,28 +1,55 @@
 package com.saul.botwallapop.service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.ApiConstants;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.saul.botwallapop.config.DeliveryConfig;
 import com.saul.botwallapop.model.*;
+import com.saul.botwallapop.scheduler.AdaptivePollingScheduler;
+import com.saul.botwallapop.scheduler.ScanCoordinator;
+import com.saul.botwallapop.store.OutboxStore;
+import com.saul.botwallapop.store.SubscriptionStore;
+import com.saul.botwallapop.utils.MarkdownEscaper;
+import com.saul.botwallapop.utils.OfferIds;
 
 @Component
 public class TelegramBotService extends TelegramLongPollingBot {
 
     private static final Logger log = LoggerFactory.getLogger(TelegramBotService.class);
 
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+    private static final DateTimeFormatter STATUS_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
     @Value("${telegram.bot.token}")
     private String botToken;
 
@@ -31,24 +58,87 @@ public class TelegramBotService extends TelegramLongPollingBot {
 
     private final BotState botState;
     private final WallapopSearchService searchService;
+    private final ScanCoordinator scanCoordinator;
+    private final AdaptivePollingScheduler pollingScheduler;
+    private final SubscriptionStore subscriptions;
 
-    // Cola de mensajes a enviar
-    private final BlockingQueue<SendMessage> messageQueue = new LinkedBlockingQueue<>();
+    // Cola de envío con límites de Telegram
+    private final DeliveryConfig deliveryConfig;
+    private final TelegramDeliveryPipeline delivery;
+    private final OutboxStore outbox;
+    private final Timer deliveryLatency;
 
-    // Lista de mensajes enviados (para /limpiar)
-    private final List<Integer> mensajesEnviados = new CopyOnWriteArrayList<>();
+    // Los comandos se atienden fuera del hilo que recibe los updates
+    private final ThreadPoolExecutor commandExecutor;
+    private final ExecutorService deleteExecutor;
+    private final ScheduledExecutorService progressScheduler;
 
-    // Ejecutores
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    // Mensajes enviados por chat (para /limpiar)
+    private final Map<Long, List<Integer>> mensajesEnviados = new ConcurrentHashMap<>();
 
-    // ID del último grupo donde se recibió un mensaje
+    // Grupo de los productos configurados (las suscripciones van a su propio chat)
     @Value("${telegram.group.id}")
-    private volatile Long lastGroupChatId;
+    private volatile Long mainGroupChatId;
+
+    @Value("${wallapop.check.interval.minutes}")
+    private int checkIntervalMinutes;
 
-    public TelegramBotService(BotState botState, WallapopSearchService searchService) {
+    public TelegramBotService(BotState botState, WallapopSearchService searchService,
+                              @Lazy ScanCoordinator scanCoordinator, AdaptivePollingScheduler pollingScheduler,
+                              DeliveryConfig deliveryConfig, OutboxStore outbox, SubscriptionStore subscriptions,
+                              MeterRegistry meterRegistry,
+                              @Value("${telegram.bot.api-url:" + ApiConstants.BASE_URL + "}") String apiUrl) {
+        super(botOptions(apiUrl));
         this.botState = botState;
+        this.subscriptions = subscriptions;
         this.searchService = searchService;
-        iniciarProcesadorDeCola();
+        this.scanCoordinator = scanCoordinator;
+        this.pollingScheduler = pollingScheduler;
+        this.deliveryConfig = deliveryConfig;
+        this.outbox = outbox;
+        this.delivery = new TelegramDeliveryPipeline(msg -> execute(msg), deliveryConfig,
+                sent -> mensajesEnviados.computeIfAbsent(sent.getChatId(), id -> new CopyOnWriteArrayList<>())
+                        .add(sent.getMessageId()), meterRegistry);
+        this.deliveryLatency = Timer.builder("wallapop.offer.delivery.latency")
+                .description("Tiempo desde que se detecta una oferta hasta que Telegram confirma el envío")
+                .register(meterRegistry);
+
+        int commandThreads = Math.max(1, deliveryConfig.getCommandThreads());
+        this.commandExecutor = new ThreadPoolExecutor(commandThreads, commandThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, deliveryConfig.getCommandQueueSize())), daemonThreads("telegram-command"));
+        this.deleteExecutor = Executors.newFixedThreadPool(Math.max(1, deliveryConfig.getDeleteThreads()),
+                daemonThreads("telegram-delete"));
+        this.progressScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("telegram-progress"));
+    }
+
+    // La URL base se puede cambiar para apuntar a un servidor simulado (ver benchmarks)
+    private static DefaultBotOptions botOptions(String apiUrl) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(apiUrl);
+        return options;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // Reenvía lo que quedó sin confirmar antes del último cierre
+    @PostConstruct
+    public void replayPendingMessages() {
+        Map<Long, OutboundMessage> pending = outbox.drainRecovered();
+        pending.forEach((seq, message) -> {
+            SendMessage msg = new SendMessage(message.getChatId(), message.getText());
+            msg.setParseMode(message.getParseMode());
+            if (message.isDisableWebPagePreview()) msg.disableWebPagePreview();
+            // Sin precios guardados: el siguiente escaneo fija la referencia de bajadas de precio
+            enqueueDurable(seq, msg, message.getOfferUrls(), message.getDetectedAt(), null, null);
+        });
+        if (!pending.isEmpty()) log.info("📮 {} mensajes pendientes reencolados", pending.size());
     }
 
     @Override
@@ -57,51 +147,12 @@ public class TelegramBotService extends TelegramLongPollingBot {
     @Override
     public String getBotToken() { return botToken; }
 
-    // -------------------- PROCESADOR DE COLA --------------------
-    private void iniciarProcesadorDeCola() {
-        scheduler.scheduleWithFixedDelay(() -> {
-            try {
-                SendMessage msg = messageQueue.poll(1, TimeUnit.SECONDS);
-                if (msg != null) {
-                    enviarConReintentos(msg);
-                    Thread.sleep(40); // 25 mensajes por segundo máx (rate limit Telegram)
-                }
-            } catch (InterruptedException ignored) {
-            } catch (Exception e) {
-                log.error("Error procesando la cola de mensajes: {}", e.getMessage());
-            }
-        }, 0, 200, TimeUnit.MILLISECONDS);
-    }
-
-    private void enviarConReintentos(SendMessage msg) {
-        int intentos = 0;
-        int maxIntentos = 5;
-        long espera = 1000; // ms
-        while (intentos < maxIntentos) {
-            try {
-                var result = execute(msg);
-                mensajesEnviados.add(result.getMessageId());
-                return;
-            } catch (TelegramApiException e) {
-                intentos++;
-                if (e.getMessage().contains("Too Many Requests")) {
-                    espera *= 2; // backoff exponencial
-                    log.warn("Rate limit alcanzado. Esperando {}ms antes de reintentar...", espera);
-                } else {
-                    log.error("Error enviando mensaje (intento {}): {}", intentos, e.getMessage());
-                }
-                try { Thread.sleep(espera); } catch (InterruptedException ignored) {}
-            }
-        }
-        log.error("❌ No se pudo enviar el mensaje tras {} intentos", maxIntentos);
-    }
-
     // -------------------- MANEJO DE UPDATES --------------------
     @Override
     public void onUpdateReceived(Update update) {
         if (!update.hasMessage() || !update.getMessage().hasText()) return;
 
-        String text = update.getMessage().getText().trim().toLowerCase();
+        String text = update.getMessage().getText().trim();
         String userId = update.getMessage().getFrom().getId().toString();
         String userName = update.getMessage().getFrom().getFirstName();
         Long chatId = update.getMessage().getChatId();
@@ -114,28 +165,52 @@ public class TelegramBotService extends TelegramLongPollingBot {
             return;
         }
 
-        // Guardamos este chat ID como último grupo activo
-        lastGroupChatId = chatId;
+        // Los productos configurados van a telegram.group.id o, si no hay, al primer grupo que escriba.
+        // El resto de grupos reciben lo de sus suscripciones y las respuestas a sus comandos
+        if (mainGroupChatId == null) mainGroupChatId = chatId;
 
         if (botState.getAuthorizedUsers().isEmpty()) botState.addAuthorizedUser(userId);
         if (!botState.isUserAuthorized(userId)) {
-            enqueueTextToLastGroup("❌ No autorizado");
+            enqueueText(chatId, "❌ No autorizado");
             return;
         }
 
-        switch (text) {
-            case "/start" -> handleStart();
-            case "/help" -> handleHelp();
-            case "/buscar", "buscar" -> handleSearchAll(false);
-            case "/productos", "productos" -> handleListProducts();
-            case "/estado", "estado" -> handleStatus();
-            case "/limpiar", "limpiar" -> handleLimpiar();
-            default -> enqueueTextToLastGroup("❓ Usa /help para ver comandos disponibles");
+        try {
+            commandExecutor.execute(() -> handleCommand(chatId, text));
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de comandos llena, se descarta: {}", text);
+            enqueueText(chatId, "⏳ Estoy ocupado, prueba de nuevo en unos segundos.");
+        }
+    }
+
+    private void handleCommand(Long chatId, String text) {
+        // "/suscribir@MiBot zelda|30" -> comando "/suscribir", argumentos "zelda|30"
+        int space = text.indexOf(' ');
+        String command = (space < 0 ? text : text.substring(0, space)).toLowerCase();
+        String args = space < 0 ? "" : text.substring(space + 1).trim();
+        int at = command.indexOf('@');
+        if (at > 0) command = command.substring(0, at);
+
+        try {
+            switch (command) {
+                case "/start" -> handleStart(chatId);
+                case "/help" -> handleHelp(chatId);
+                case "/buscar", "buscar" -> handleSearchAll(chatId);
+                case "/productos", "productos" -> handleListProducts(chatId);
+                case "/estado", "estado" -> handleStatus(chatId);
+                case "/limpiar", "limpiar" -> handleLimpiar(chatId);
+                case "/suscribir" -> handleSubscribe(chatId, args);
+                case "/suscripciones" -> handleListSubscriptions(chatId);
+                case "/baja" -> handleUnsubscribe(chatId, args);
+                default -> enqueueText(chatId, "❓ Usa /help para ver comandos disponibles");
+            }
+        } catch (RuntimeException e) {
+            log.error("Error atendiendo '{}': {}", text, e.getMessage(), e);
         }
     }
 
     // -------------------- COMANDOS --------------------
-    private void handleStart() {
+    private void handleStart(Long chatId) {
         String msg = """
             👋 ¡Hola!
 
@@ -144,26 +219,29 @@ public class TelegramBotService extends TelegramLongPollingBot {
 
             Usa /help para ver todos los comandos.
             """;
-        enqueueTextWithKeyboard(msg);
+        enqueueTextWithKeyboard(chatId, msg);
     }
 
-    private void handleHelp() {
-        enqueueTextToLastGroup("""
+    private void handleHelp(Long chatId) {
+        enqueueText(chatId, String.format("""
             📚 *Comandos disponibles:*
 
             /buscar - Buscar todos los productos ahora
             /productos - Ver productos configurados
             /estado - Ver estadísticas del bot
             /limpiar - Borrar los mensajes del bot en el grupo
+            /suscribir nombre|precio - Avisar en este grupo de una búsqueda
+            /suscripciones - Ver las suscripciones del grupo
+            /baja número - Quitar una suscripción
 
-            💡 El bot busca automáticamente cada 10 minutos.
-            """);
+            💡 El bot busca automáticamente cada %d minutos.
+            """, checkIntervalMinutes));
     }
 
-    private void handleListProducts() {
+    private void handleListProducts(Long chatId) {
         List<ProductConfig> products = searchService.getConfiguredProducts();
         if (products.isEmpty()) {
-            enqueueTextToLastGroup("📦 No hay productos configurados aún.");
+            enqueueText(chatId, "📦 No hay productos configurados aún.");
             return;
         }
 
@@ -172,11 +250,11 @@ public class TelegramBotService extends TelegramLongPollingBot {
             ProductConfig p = products.get(i);
             sb.append(String.format("%d. %s\n   Precio mínimo: %.2f€\n\n", i + 1, p.getName(), p.getMinPrice()));
         }
-        enqueueTextToLastGroup(sb.toString());
+        enqueueText(chatId, sb.toString());
     }
 
-    private void handleStatus() {
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private void handleStatus(Long chatId) {
+        DateTimeFormatter fmt = STATUS_DATE_FORMAT;
         String msg = String.format("""
             📊 *Estado del Bot*
 
@@ -184,75 +262,174 @@ public class TelegramBotService extends TelegramLongPollingBot {
             🕐 Último escaneo: %s
             👥 Usuarios autorizados: %d
             🔍 Productos configurados: %d
+            📬 Suscripciones de este grupo: %d
             """,
-            botState.getNotifiedOffers().size(),
+            botState.getNotifiedOfferCount(),
             botState.getLastCheck() != null ? botState.getLastCheck().format(fmt) : "Nunca",
             botState.getAuthorizedUsers().size(),
-            searchService.getConfiguredProducts().size()
+            searchService.getConfiguredProducts().size(),
+            subscriptions.forChat(chatId).size()
         );
-        enqueueTextToLastGroup(msg);
+        LocalDateTime scanStartedAt = scanCoordinator.getCurrentScanStartedAt();
+        if (scanStartedAt != null) msg += "🔄 Escaneo en curso desde " + scanStartedAt.format(fmt) + "\n";
+        ScanReport lastScan = scanCoordinator.getLastReport();
+        if (lastScan != null) {
+            msg += String.format("⏱️ Último escaneo (%s): %d s\n", lastScan.getTrigger(),
+                    Duration.between(lastScan.getStartedAt(), lastScan.getFinishedAt()).toSeconds());
+        }
+        if (delivery.size() > 0) {
+            msg += String.format("📨 Mensajes en cola: %d (%d persistidos)\n", delivery.size(), outbox.pendingCount());
+        }
+        String filterStats = botState.getNotifiedFilterStats();
+        if (filterStats != null) msg += "🌸 " + filterStats + "\n";
+
+        List<ProductPollState> polling = pollingScheduler.snapshot();
+        if (!polling.isEmpty()) {
+            DateTimeFormatter hourFmt = HOUR_FORMAT;
+            StringBuilder sb = new StringBuilder(msg).append("\n📈 *Sondeo por producto:*\n");
+            for (ProductPollState state : polling) {
+                sb.append(String.format("• %s: %.2f ofertas/h, cada %d min, próxima %s\n",
+                        state.getProduct().getName(), state.getRatePerHour(),
+                        Duration.ofMillis(state.getIntervalMs()).toMinutes(),
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(state.getNextDueAt()), ZoneId.systemDefault())
+                                .format(hourFmt)));
+            }
+            msg = sb.toString();
+        }
+        enqueueText(chatId, msg);
     }
 
-    private void handleSearchAll(boolean automatic) {
-        if (!automatic) enqueueTextToLastGroup("🔍 Buscando todos los productos...");
+    /**
+     * Lanza (o se une a) un escaneo sin esperar a que termine. El mensaje de
+     * confirmación se va editando con el avance hasta que acaba.
+     */
+    private void handleSearchAll(Long chatId) {
+        AtomicReference<Integer> ackMessageId = new AtomicReference<>();
+        Consumer<Message> onAckSent = sent -> ackMessageId.set(sent.getMessageId());
+        if (scanCoordinator.isScanInProgress()) {
+            enqueueText(chatId, "⏳ Ya hay un escaneo en curso, te aviso cuando termine.", onAckSent);
+        } else {
+            enqueueText(chatId, "🔍 Buscando todos los productos...", onAckSent);
+        }
+
+        AtomicReference<String> lastProgress = new AtomicReference<>();
+        long interval = Math.max(1, deliveryConfig.getProgressIntervalSeconds());
+        ScheduledFuture<?> progressUpdates = progressScheduler.scheduleWithFixedDelay(
+                () -> reportProgress(chatId, ackMessageId.get(), lastProgress), interval, interval, TimeUnit.SECONDS);
+
+        scanCoordinator.requestScan("manual").whenComplete((report, error) -> {
+            progressUpdates.cancel(false);
+            if (error != null) {
+                log.error("Error en escaneo manual: {}", error.getMessage());
+                enqueueText(chatId, "❌ Error durante la búsqueda");
+            } else if (report.getTotalNewOffers() == 0) {
+                enqueueText(chatId, "❌ No se encontraron ofertas nuevas que cumplan los criterios");
+            } else {
+                enqueueText(chatId, "✅ Total nuevas ofertas enviadas: " + report.getTotalNewOffers());
+            }
+        });
+    }
 
-        Map<String, List<WallapopOffer>> results = searchService.searchAllProducts();
-        if (results.isEmpty()) {
-            if (!automatic) enqueueTextToLastGroup("❌ No se encontraron ofertas que cumplan los criterios");
+    // Edita el mensaje de confirmación de /buscar con el avance del escaneo
+    private void reportProgress(Long chatId, Integer messageId, AtomicReference<String> lastText) {
+        ScanProgress progress = scanCoordinator.getCurrentProgress();
+        if (chatId == null || messageId == null || progress == null) return;
+        String text = String.format("🔍 Buscando... %d/%d productos, %d ofertas nuevas enviadas",
+                progress.getDoneProducts(), progress.getTotalProducts(), progress.getNewOffers());
+        if (text.equals(lastText.getAndSet(text))) return; // Telegram rechaza ediciones sin cambios
+        try {
+            execute(EditMessageText.builder().chatId(chatId.toString()).messageId(messageId).text(text).build());
+        } catch (TelegramApiException e) {
+            log.debug("No se pudo actualizar el avance: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Borra los mensajes enviados al grupo en paralelo (telegrambots 6.8 no tiene
+     * la llamada de borrado por lotes) y avisa al terminar.
+     */
+    private void handleLimpiar(Long chatId) {
+        List<Integer> sent = mensajesEnviados.getOrDefault(chatId, List.of());
+        List<Integer> ids = new ArrayList<>(sent);
+        if (ids.isEmpty()) {
+            enqueueText(chatId, "⚠️ No hay mensajes que borrar.");
             return;
         }
+        sent.removeAll(ids);
+        enqueueText(chatId, "🧹 Borrando " + ids.size() + " mensajes...");
 
-        int total = 0;
-        for (var entry : results.entrySet()) {
-            String product = entry.getKey();
-            List<WallapopOffer> offers = entry.getValue();
-            List<WallapopOffer> newOffers = offers.stream()
-                .filter(o -> !botState.isOfferNotified(o.getUrl()))
+        List<CompletableFuture<Boolean>> deletes = ids.stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> deleteMessage(chatId, id), deleteExecutor))
                 .toList();
+        CompletableFuture.allOf(deletes.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            long borrados = deletes.stream().filter(f -> !f.isCompletedExceptionally() && f.join()).count();
+            enqueueText(chatId, "🧹 Chat limpiado (" + borrados + " mensajes borrados).");
+        });
+    }
 
-            if (newOffers.isEmpty()) continue;
-
-            if (!automatic) enqueueTextToLastGroup(String.format("📦 *%s*\nEncontradas %d nuevas ofertas:", product, newOffers.size()));
-
-            for (WallapopOffer o : newOffers) {
-                if (automatic) sendOfferToLastGroup(o);
-                else sendOffer(o);
-            }
-            total += newOffers.size();
+    private void handleSubscribe(Long chatId, String spec) {
+        if (spec.isEmpty()) {
+            enqueueText(chatId, "✍️ Uso: /suscribir nombre|precio\\_maximo[|regla=valor...]\n"
+                    + "Ejemplo: /suscribir Catan Nintendo Switch|23|envio=si");
+            return;
+        }
+        try {
+            Subscription subscription = subscriptions.add(chatId, spec);
+            enqueueText(chatId, String.format("✅ Suscripción %d: %s (hasta %.2f€)", subscription.getId(),
+                    MarkdownEscaper.escape(subscription.getProduct().getName()), subscription.getProduct().getMinPrice()));
+        } catch (IllegalArgumentException e) {
+            enqueueText(chatId, "❌ Suscripción no válida: " + MarkdownEscaper.escape(String.valueOf(e.getMessage())));
         }
-
-        if (!automatic) enqueueTextToLastGroup("✅ Total nuevas ofertas enviadas: " + total);
-        else if (total > 0) enqueueTextToLastGroup("✅ Total nuevas ofertas enviadas: " + total);
     }
 
-    private void handleLimpiar() {
-        if (mensajesEnviados.isEmpty()) {
-            enqueueTextToLastGroup("⚠️ No hay mensajes que borrar.");
+    private void handleListSubscriptions(Long chatId) {
+        List<Subscription> list = subscriptions.forChat(chatId);
+        if (list.isEmpty()) {
+            enqueueText(chatId, "📬 Este grupo no tiene suscripciones. Usa /suscribir nombre|precio");
             return;
         }
-        int borrados = 0;
-        for (Integer id : new ArrayList<>(mensajesEnviados)) {
-            if (deleteMessage(lastGroupChatId, id)) borrados++;
+        StringBuilder sb = new StringBuilder("📬 *Suscripciones del grupo:*\n\n");
+        for (Subscription s : list) {
+            sb.append(s.getId()).append(". ");
+            MarkdownEscaper.escape(s.getSpec(), sb);
+            sb.append('\n');
+        }
+        sb.append("\nPara quitar una: /baja número");
+        enqueueText(chatId, sb.toString());
+    }
+
+    private void handleUnsubscribe(Long chatId, String args) {
+        try {
+            long id = Long.parseLong(args.trim());
+            enqueueText(chatId, subscriptions.remove(chatId, id)
+                    ? "🗑️ Suscripción " + id + " eliminada"
+                    : "❌ No hay ninguna suscripción " + id + " en este grupo");
+        } catch (NumberFormatException e) {
+            enqueueText(chatId, "✍️ Uso: /baja número (ver /suscripciones)");
         }
-        mensajesEnviados.clear();
-        enqueueTextToLastGroup("🧹 Chat limpiado (" + borrados + " mensajes borrados).");
     }
 
     // -------------------- UTILIDADES DE ENVÍO --------------------
-    public void enqueueTextToLastGroup(String text) {
-        if (lastGroupChatId == null) {
+    public void enqueueTextToMainGroup(String text) {
+        if (mainGroupChatId == null) {
             log.warn("No hay grupo activo para enviar el mensaje automático.");
             return;
         }
-        SendMessage msg = new SendMessage(lastGroupChatId.toString(), text);
-        msg.setParseMode("Markdown");
-        messageQueue.offer(msg);
+        enqueueText(mainGroupChatId, text);
+    }
+
+    private void enqueueText(Long chatId, String text) {
+        enqueueText(chatId, text, null);
     }
 
-    private void enqueueTextWithKeyboard(String text) {
-        if (lastGroupChatId == null) return;
+    private void enqueueText(Long chatId, String text, Consumer<Message> onSent) {
+        SendMessage msg = new SendMessage(chatId.toString(), text);
+        msg.setParseMode("Markdown");
+        delivery.enqueue(msg, onSent, null);
+    }
 
-        SendMessage msg = new SendMessage(lastGroupChatId.toString(), text);
+    private void enqueueTextWithKeyboard(Long chatId, String text) {
+        SendMessage msg = new SendMessage(chatId.toString(), text);
         msg.setParseMode("Markdown");
 
         ReplyKeyboardMarkup keyboard = new ReplyKeyboardMarkup();
@@ -269,21 +446,154 @@ public class TelegramBotService extends TelegramLongPollingBot {
         keyboard.setKeyboard(List.of(row1, row2));
         msg.setReplyMarkup(keyboard);
 
-        messageQueue.offer(msg);
+        delivery.enqueue(msg);
     }
 
-    public void sendOffer(WallapopOffer offer) {
-        if (lastGroupChatId == null) return;
-        if (botState.isOfferNotified(offer.getUrl())) return;
-        SendMessage msg = new SendMessage(lastGroupChatId.toString(), offer.toTelegramMessage());
+    /**
+     * Envía al grupo principal las ofertas nuevas de un producto configurado. En
+     * modo resumen se agrupan en mensajes de hasta {@code digestMaxOffers} ofertas
+     * (y 4096 caracteres). Si la cola de envío está llena espera a que se vacíe
+     * (frena la búsqueda). {@code onSent} se llama con cada oferta cuando Telegram
+     * confirma su mensaje. Devuelve las ofertas encoladas: ninguna si aún no hay
+     * grupo principal o ya estaban notificadas.
+     */
+    public List<WallapopOffer> sendOffers(String productName, List<WallapopOffer> offers,
+                                          Consumer<WallapopOffer> onSent) {
+        Long chatId = mainGroupChatId;
+        if (chatId == null) return List.of();
+        return sendOffers(chatId, "📦 *" + MarkdownEscaper.escape(productName) + "*", offers,
+                WallapopOffer::getUrl, onSent);
+    }
+
+    /** Como {@link #sendOffers(String, List, Consumer)}, al chat de la suscripción y deduplicando por chat. */
+    public List<WallapopOffer> sendSubscriptionOffers(Subscription subscription, List<WallapopOffer> offers) {
+        long chatId = subscription.getChatId();
+        return sendOffers(chatId, "📬 *" + MarkdownEscaper.escape(subscription.getProduct().getName()) + "*", offers,
+                o -> OfferIds.scopedId(chatId, o.getUrl()), o -> {});
+    }
+
+    // dedupKey: lo que se marca como notificado al confirmarse el envío (ver BotState)
+    private List<WallapopOffer> sendOffers(Long chatId, String title, List<WallapopOffer> offers,
+                                           Function<WallapopOffer, String> dedupKey,
+                                           Consumer<WallapopOffer> onSent) {
+        try {
+            delivery.awaitCapacity(deliveryConfig.getMaxQueued());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+        List<WallapopOffer> pendingOffers = offers.stream()
+                .filter(o -> !botState.isOfferNotified(dedupKey.apply(o)))
+                .toList();
+        if (pendingOffers.isEmpty()) return pendingOffers;
+
+        String header = String.format("%s\nSe han encontrado %d nuevas ofertas:", title, pendingOffers.size());
+        if (!deliveryConfig.isDigest()) {
+            enqueueText(chatId, header);
+            for (WallapopOffer offer : pendingOffers) {
+                enqueueOfferMessage(chatId, offer.toTelegramMessage(), List.of(dedupKey.apply(offer)),
+                        detectedAtMillis(offer), () -> onSent.accept(offer), null);
+            }
+            return pendingOffers;
+        }
+
+        StringBuilder digest = new StringBuilder(MAX_MESSAGE_LENGTH).append(header);
+        StringBuilder entry = new StringBuilder(256); // se reutiliza para cada oferta
+        List<String> keys = new ArrayList<>();
+        List<WallapopOffer> inDigest = new ArrayList<>();
+        long detectedAt = Long.MAX_VALUE;
+        for (WallapopOffer offer : pendingOffers) {
+            entry.setLength(0);
+            offer.appendTelegramMessage(entry);
+            if (keys.size() >= deliveryConfig.getDigestMaxOffers()
+                    || digest.length() + entry.length() + 2 > MAX_MESSAGE_LENGTH) {
+                List<WallapopOffer> sent = inDigest;
+                enqueueOfferMessage(chatId, digest.toString(), keys, detectedAt, () -> sent.forEach(onSent), null);
+                digest.setLength(0);
+                keys = new ArrayList<>();
+                inDigest = new ArrayList<>();
+                detectedAt = Long.MAX_VALUE;
+            }
+            if (digest.length() > 0) digest.append("\n\n");
+            digest.append(entry);
+            keys.add(dedupKey.apply(offer));
+            inDigest.add(offer);
+            detectedAt = Math.min(detectedAt, detectedAtMillis(offer));
+        }
+        List<WallapopOffer> sent = inDigest;
+        enqueueOfferMessage(chatId, digest.toString(), keys, detectedAt, () -> sent.forEach(onSent), null);
+        return pendingOffers;
+    }
+
+    /**
+     * Avisa de que un anuncio ya enviado ha bajado de precio desde el último aviso.
+     * {@code onSent} y {@code onDropped} se llaman al confirmarse o descartarse el
+     * envío. Devuelve false (sin llamar a ninguno) si aún no hay grupo principal.
+     */
+    public boolean sendPriceDrop(String productName, WallapopOffer offer, double previousPrice,
+                                 Runnable onSent, Runnable onDropped) {
+        Long chatId = mainGroupChatId;
+        if (chatId == null) return false;
+        StringBuilder sb = new StringBuilder(256).append("📉 *Bajada de precio* (");
+        MarkdownEscaper.escape(productName, sb);
+        sb.append(")\n\n📦 ");
+        MarkdownEscaper.escape(offer.getTitle(), sb);
+        sb.append("\n💰 *");
+        MarkdownEscaper.escape(offer.getPrice(), sb);
+        sb.append("* (antes ").append(HttpSearchBackend.formatPrice(previousPrice))
+                .append(")\n🔗 [Ver en Wallapop](").append(offer.getUrl()).append(')');
+        enqueueOfferMessage(chatId, sb.toString(), List.of(offer.getUrl()), detectedAtMillis(offer), onSent, onDropped);
+        return true;
+    }
+
+    private void enqueueOfferMessage(Long chatId, String text, List<String> offerUrls, long detectedAt) {
+        enqueueOfferMessage(chatId, text, offerUrls, detectedAt, null, null);
+    }
+
+    private void enqueueOfferMessage(Long chatId, String text, List<String> offerUrls, long detectedAt,
+                                     Runnable onSent, Runnable onDropped) {
+        SendMessage msg = new SendMessage(chatId.toString(), text);
         msg.setParseMode("Markdown");
         msg.disableWebPagePreview();
-        messageQueue.offer(msg);
-        botState.markOfferAsNotified(offer.getUrl());
+        OutboundMessage outbound = new OutboundMessage(msg.getChatId(), text, msg.getParseMode(), true, offerUrls);
+        outbound.setDetectedAt(detectedAt);
+        long seq = outbox.append(outbound);
+        enqueueDurable(seq, msg, offerUrls, detectedAt, onSent, onDropped);
+    }
+
+    private static long detectedAtMillis(WallapopOffer offer) {
+        if (offer.getDetectedAt() == null) return System.currentTimeMillis();
+        return offer.getDetectedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
-    private void sendOfferToLastGroup(WallapopOffer offer) {
-        sendOffer(offer); // misma lógica
+    /**
+     * Encola un mensaje ya guardado en la cola persistente. Sus ofertas quedan
+     * pendientes y solo se marcan como notificadas cuando Telegram confirma el envío;
+     * entonces se ejecuta {@code onSent} (o {@code onDropped} si se descarta).
+     */
+    private void enqueueDurable(long seq, SendMessage msg, List<String> offerUrls, long detectedAt,
+                                Runnable onSent, Runnable onDropped) {
+        offerUrls.forEach(botState::markOfferPending);
+        delivery.enqueue(msg,
+                sent -> {
+                    if (detectedAt > 0 && detectedAt != Long.MAX_VALUE) {
+                        deliveryLatency.record(Math.max(0, System.currentTimeMillis() - detectedAt), TimeUnit.MILLISECONDS);
+                    }
+                    offerUrls.forEach(botState::markOfferAsNotified);
+                    outbox.ack(seq);
+                    if (onSent != null) onSent.run();
+                },
+                () -> {
+                    offerUrls.forEach(botState::clearOfferPending);
+                    outbox.ack(seq);
+                    if (onDropped != null) onDropped.run();
+                });
+    }
+
+    public void sendOffer(WallapopOffer offer) {
+        if (mainGroupChatId == null) return;
+        if (botState.isOfferNotified(offer.getUrl())) return;
+        enqueueOfferMessage(mainGroupChatId, offer.toTelegramMessage(), List.of(offer.getUrl()), detectedAtMillis(offer));
     }
 
     public boolean deleteMessage(Long chatId, Integer messageId) {
@@ -296,10 +606,11 @@ public class TelegramBotService extends TelegramLongPollingBot {
         }
     }
 
-    // -------------------- ESCANEO AUTOMÁTICO --------------------
-    @Scheduled(fixedRate = 600_000)
-    public void scheduledSearchAndNotify() {
-        log.info("Ejecutando búsqueda automática...");
-        handleSearchAll(true);
+    @PreDestroy
+    public void shutdown() {
+        progressScheduler.shutdownNow();
+        commandExecutor.shutdownNow();
+        deleteExecutor.shutdownNow();
+        delivery.shutdown();
     }
 }
@@ -0,0 +1,287 @@
+package com.saul.botwallapop.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import com.saul.botwallapop.config.DeliveryConfig;
+import com.saul.botwallapop.utils.TokenBucket;
+
+/**
+ * Envío de mensajes a Telegram con una cola FIFO por chat. Un hilo reparte los
+ * envíos por turnos entre chats respetando un token bucket global y otro por chat,
+ * y los envíos se hacen en un pool aparte (como mucho uno en vuelo por chat, para
+ * mantener el orden). Los reintentos no bloquean: el chat se pausa (con el
+ * {@code retry_after} de Telegram si lo hay) y el mensaje vuelve al frente de su cola.
+ */
+public class TelegramDeliveryPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TelegramDeliveryPipeline.class);
+
+    @FunctionalInterface
+    public interface Sender {
+        Message send(SendMessage message) throws TelegramApiException;
+    }
+
+    private final Sender sender;
+    private final DeliveryConfig config;
+    private final Consumer<Message> onDelivered;
+
+    private final TokenBucket globalBucket;
+    private final Map<String, TokenBucket> chatBuckets = new HashMap<>();
+    private final Map<String, Deque<Outbound>> chatQueues = new HashMap<>();
+    private final Deque<String> rotation = new ArrayDeque<>();
+    private final Set<String> busyChats = new HashSet<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final ExecutorService sendExecutor;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    private final Timer sendLatency;
+    private final Counter retries;
+    private final Counter dropped;
+
+    public TelegramDeliveryPipeline(Sender sender, DeliveryConfig config, Consumer<Message> onDelivered,
+                                    MeterRegistry registry) {
+        this.sender = sender;
+        this.config = config;
+        this.onDelivered = onDelivered;
+        this.sendLatency = Timer.builder("telegram.send.latency")
+                .description("Tiempo de la llamada sendMessage a Telegram").register(registry);
+        this.retries = registry.counter("telegram.send.retries");
+        this.dropped = registry.counter("telegram.send.dropped");
+        registry.gauge("telegram.queue.depth", pending);
+        this.globalBucket = new TokenBucket(config.getGlobalPerSecond(), config.getGlobalPerSecond());
+        this.sendExecutor = Executors.newFixedThreadPool(Math.max(1, config.getSenderThreads()));
+        this.dispatcher = new Thread(this::dispatchLoop, "telegram-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public void enqueue(SendMessage message) {
+        enqueue(message, null, null);
+    }
+
+    /**
+     * Encola un mensaje; {@code onSent} se ejecuta cuando Telegram confirma el envío
+     * y {@code onDropped} si se descarta definitivamente.
+     */
+    public void enqueue(SendMessage message, Consumer<Message> onSent, Runnable onDropped) {
+        Outbound outbound = new Outbound(message, onSent, onDropped);
+        pending.incrementAndGet();
+        lock.lock();
+        try {
+            addToChat(outbound, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return pending.get();
+    }
+
+    /** Bloquea mientras haya {@code limit} mensajes o más pendientes de enviar. */
+    public void awaitCapacity(int limit) throws InterruptedException {
+        if (limit <= 0 || pending.get() < limit) return;
+        lock.lock();
+        try {
+            while (running && pending.get() >= limit) spaceAvailable.await(1, TimeUnit.SECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addToChat(Outbound outbound, boolean front) {
+        String chatId = outbound.message.getChatId();
+        Deque<Outbound> queue = chatQueues.get(chatId);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            chatQueues.put(chatId, queue);
+            rotation.add(chatId);
+        }
+        if (front) queue.addFirst(outbound);
+        else queue.addLast(outbound);
+        changed.signal();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            Outbound next = null;
+            lock.lock();
+            try {
+                long waitNanos = Long.MAX_VALUE;
+                for (int i = rotation.size(); i > 0 && next == null; i--) {
+                    String chatId = rotation.poll();
+                    if (busyChats.contains(chatId)) {
+                        rotation.add(chatId);
+                        continue;
+                    }
+                    TokenBucket bucket = chatBucket(chatId);
+                    if (bucket.tryAcquire()) {
+                        Deque<Outbound> queue = chatQueues.get(chatId);
+                        next = queue.poll();
+                        if (queue.isEmpty()) chatQueues.remove(chatId);
+                        else rotation.add(chatId);
+                        busyChats.add(chatId);
+                    } else {
+                        waitNanos = Math.min(waitNanos, bucket.nanosUntilAvailable());
+                        rotation.add(chatId);
+                    }
+                }
+                if (next == null) {
+                    if (waitNanos == Long.MAX_VALUE) changed.await();
+                    else changed.awaitNanos(Math.max(waitNanos, 1_000_000));
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                globalBucket.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Outbound toSend = next;
+            sendExecutor.execute(() -> deliver(toSend));
+        }
+    }
+
+    private void deliver(Outbound outbound) {
+        String chatId = outbound.message.getChatId();
+        try {
+            Message result;
+            try {
+                long start = System.nanoTime();
+                result = sender.send(outbound.message);
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                pending.decrementAndGet();
+            } catch (TelegramApiException e) {
+                if (!scheduleRetry(outbound, e)) dropped(outbound);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado enviando mensaje a {}: {}", chatId, e.getMessage(), e);
+                dropped(outbound);
+                return;
+            }
+            // Telegram ya lo ha aceptado: un fallo aquí no puede tratarse como descarte
+            try {
+                if (onDelivered != null) onDelivered.accept(result);
+                if (outbound.onSent != null) outbound.onSent.accept(result);
+            } catch (RuntimeException e) {
+                log.error("Error tras enviar el mensaje a {}: {}", chatId, e.getMessage(), e);
+            }
+        } finally {
+            lock.lock();
+            try {
+                busyChats.remove(chatId);
+                changed.signal();
+                spaceAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void dropped(Outbound outbound) {
+        pending.decrementAndGet();
+        dropped.increment();
+        if (outbound.onDropped != null) outbound.onDropped.run();
+    }
+
+    // Devuelve true si el mensaje vuelve a la cola
+    private boolean scheduleRetry(Outbound outbound, TelegramApiException e) {
+        outbound.attempts++;
+        String chatId = outbound.message.getChatId();
+        Integer retryAfter = null;
+        Integer errorCode = null;
+        if (e instanceof TelegramApiRequestException req) {
+            errorCode = req.getErrorCode();
+            if (req.getParameters() != null) retryAfter = req.getParameters().getRetryAfter();
+        }
+
+        // Errores 4xx distintos de 429 (Markdown inválido, chat inexistente...) no se arreglan reintentando
+        boolean retryable = errorCode == null || errorCode == 429 || errorCode >= 500;
+        if (!retryable || outbound.attempts >= config.getMaxAttempts()) {
+            log.error("❌ No se pudo enviar el mensaje a {} tras {} intentos: {}", chatId, outbound.attempts, e.getMessage());
+            return false;
+        }
+
+        long delayMs = retryAfter != null
+                ? TimeUnit.SECONDS.toMillis(retryAfter)
+                : 1000L << Math.min(outbound.attempts, 6); // backoff exponencial
+        if (retryAfter != null) log.warn("Rate limit de Telegram en {}. Reintento en {} s", chatId, retryAfter);
+        else log.warn("Error enviando mensaje a {} (intento {}): {}. Reintento en {} ms",
+                chatId, outbound.attempts, e.getMessage(), delayMs);
+
+        retries.increment();
+        lock.lock();
+        try {
+            chatBucket(chatId).pauseFor(TimeUnit.MILLISECONDS.toNanos(delayMs));
+            addToChat(outbound, true);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private TokenBucket chatBucket(String chatId) {
+        return chatBuckets.computeIfAbsent(chatId,
+                id -> new TokenBucket(config.getPerChatBurst(), config.getPerChatPerMinute() / 60d));
+    }
+
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        sendExecutor.shutdown();
+        try {
+            sendExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pending.get() > 0) log.warn("⚠️ {} mensajes sin enviar al cerrar", pending.get());
+    }
+
+    private static final class Outbound {
+        private final SendMessage message;
+        private final Consumer<Message> onSent;
+        private final Runnable onDropped;
+        private int attempts;
+
+        private Outbound(SendMessage message, Consumer<Message> onSent, Runnable onDropped) {
+            this.message = message;
+            this.onSent = onSent;
+            this.onDropped = onDropped;
+        }
+    }
+}
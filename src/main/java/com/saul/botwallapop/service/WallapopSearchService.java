@@ -1,29 +1,41 @@
 package com.saul.botwallapop.service;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
-import org.openqa.selenium.By;
-import org.openqa.selenium.JavascriptExecutor;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saul.botwallapop.config.ProductsConfig;
+import com.saul.botwallapop.config.SearchConfig;
+import com.saul.botwallapop.filter.OfferFilter;
+import com.saul.botwallapop.filter.OfferListing;
+import com.saul.botwallapop.filter.SubscriptionIndex;
+import com.saul.botwallapop.model.BotState;
+import com.saul.botwallapop.model.HighWaterMark;
 import com.saul.botwallapop.model.ProductConfig;
+import com.saul.botwallapop.model.SearchParams;
+import com.saul.botwallapop.model.SearchResult;
 import com.saul.botwallapop.model.WallapopOffer;
+import com.saul.botwallapop.store.SubscriptionStore;
+import com.saul.botwallapop.utils.HostPacer;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -35,12 +47,39 @@ public class WallapopSearchService {
 
     private final ObjectMapper objectMapper;
     private final ProductsConfig productsConfig;
+    private final SearchConfig searchConfig;
+    private final BotState botState;
     private final List<ProductConfig> products = new ArrayList<>();
-    private WebDriver driver;
+    private final SearchBackend backend;
+    private final SearchBackend fallback;
+    private final ExecutorService searchExecutor;
+    private final Counter fallbackCounter;
+    private final SearchResultCache cache;
+    private final SubscriptionStore subscriptions;
+    private final CompletableFuture<Void> backendReady = new CompletableFuture<>();
 
-    public WallapopSearchService(ProductsConfig productsConfig) {
+    public WallapopSearchService(ProductsConfig productsConfig, SearchConfig searchConfig, BotState botState,
+                                 SubscriptionStore subscriptions, MeterRegistry meterRegistry) {
         this.productsConfig = productsConfig;
+        this.subscriptions = subscriptions;
+        this.searchConfig = searchConfig;
+        this.botState = botState;
         this.objectMapper = new ObjectMapper();
+        this.searchExecutor = Executors.newFixedThreadPool(Math.max(1, searchConfig.getParallelism()));
+        this.fallbackCounter = meterRegistry.counter("wallapop.search.fallbacks");
+        this.cache = new SearchResultCache(searchConfig.getCacheTtlSeconds() * 1000L,
+                searchConfig.getCacheMaxEntries(), meterRegistry);
+        meterRegistry.gauge("wallapop.search.backend.ready", backendReady, f -> f.isDone() ? 1 : 0);
+
+        HostPacer pacer = new HostPacer(searchConfig.getHostMinIntervalMs(), searchConfig.getHostJitterMs());
+        SeleniumSearchBackend selenium = new SeleniumSearchBackend(objectMapper, searchConfig, pacer, meterRegistry);
+        if ("selenium".equalsIgnoreCase(searchConfig.getBackend())) {
+            this.backend = selenium;
+            this.fallback = null;
+        } else {
+            this.backend = new HttpSearchBackend(objectMapper, searchConfig, pacer, meterRegistry);
+            this.fallback = searchConfig.isFallbackToSelenium() ? selenium : null;
+        }
     }
 
     @PostConstruct
@@ -54,144 +93,247 @@ public class WallapopSearchService {
                 log.info("  ✅ {} (min: {}€)", p.getName(), p.getMinPrice());
             }
         }
-        initWebDriver();
+        log.info("🔎 Backend de búsqueda: {}{}", backend.getName(),
+                fallback != null ? " (respaldo: " + fallback.getName() + ")" : "");
     }
 
-    private void initWebDriver() {
-        if (driver != null) return;
+    /**
+     * Arranca el navegador en segundo plano con el contexto ya levantado, para que
+     * el arranque (y el registro en Telegram) no espere a Chrome. Mientras tanto el
+     * sondeo automático no lanza escaneos y los manuales esperan a que termine.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpBackend() {
+        if (!(backend instanceof SeleniumSearchBackend selenium)) {
+            backendReady.complete(null);
+            return;
+        }
+        Thread warmUp = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                selenium.initWebDriver();
+                log.info("🚀 Navegador listo en {} ms", System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ No se pudo preparar el navegador, se reintentará en la primera búsqueda: {}", e.getMessage());
+            } finally {
+                backendReady.complete(null);
+            }
+        }, "webdriver-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
 
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless=new"); // modo headless opcional
-        options.addArguments("--disable-gpu");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--window-size=1920,1080");
-        options.addArguments("--lang=es-ES");
-        options.addArguments("--start-maximized");
-        options.addArguments("--disable-blink-features=AutomationControlled");
-        options.setExperimentalOption("excludeSwitches", List.of("enable-automation"));
-        options.setExperimentalOption("useAutomationExtension", false);
-        options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
-                + "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36");
+    /** Si el backend ya puede buscar (el navegador, si lo hay, ha terminado de arrancar o ha fallado). */
+    public boolean isBackendReady() { return backendReady.isDone(); }
 
-        driver = new ChromeDriver(options);
-        log.info("🚀 WebDriver inicializado y listo para búsquedas");
-    }
+    public CompletableFuture<Void> whenBackendReady() { return backendReady; }
 
     public List<WallapopOffer> searchProduct(String query, double minPrice) {
-        if (driver == null) initWebDriver();
-
-        List<WallapopOffer> offers = new ArrayList<>();
         try {
-            String searchUrl = "https://es.wallapop.com/app/search?keywords="
-                    + URLEncoder.encode(query, StandardCharsets.UTF_8);
-            driver.get(searchUrl);
+            return search(query, serverParams(SearchParams.maxPrice(minPrice)), OfferFilter.maxPrice(minPrice),
+                    null, page -> {}).getOffers();
+        } catch (SearchException e) {
+            log.error("❌ Error en búsqueda de '{}': {}", query, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
 
-            // --- Aceptar cookies ---
-            try {
-                WebDriverWait waitCookies = new WebDriverWait(driver, Duration.ofSeconds(5));
-                WebElement cookieBtn = waitCookies.until(
-                    d -> d.findElement(By.id("onetrust-accept-btn-handler"))
-                );
-                cookieBtn.click();
-                log.info("🍪 Cookies aceptadas automáticamente");
-            } catch (Exception ignored) {}
-
-         // --- Scroll infinito con "Cargar más" ---
-            JavascriptExecutor js = (JavascriptExecutor) driver;
-            int maxScrollAttempts = 50; // número máximo de intentos
-            int scrollAttempts = 0;
-            boolean moreResults = true;
-
-            while (scrollAttempts < maxScrollAttempts && moreResults) {
-                // Hacer scroll hasta el final
-                js.executeScript("window.scrollTo(0, document.body.scrollHeight);");
-                Thread.sleep(1500 + (int)(Math.random() * 1000));
-
-                // Buscar botón "Cargar más" y clickearlo si existe
-                try {
-                    List<WebElement> loadBtns = driver.findElements(By.cssSelector("walla-button"));
-                    moreResults = false;
-                    for (WebElement btn : loadBtns) {
-                        if (btn.isDisplayed() && btn.getText().contains("Cargar más")) {
-                            btn.click(); // Selenium hace click real
-                            moreResults = true;
-                            log.info("➡️ Pulsado 'Cargar más'");
-                            Thread.sleep(1000 + (int)(Math.random() * 800)); // esperar que cargue
-                            break; // solo clickear uno por iteración
-                        }
-                    }
-                } catch (Exception ignored) {}
-
-                scrollAttempts++;
-            }
-            	
+    /**
+     * Búsqueda incremental: solo devuelve anuncios posteriores al último visto del producto.
+     * Lanza {@link SearchException} si falla, para no confundir un error con "sin novedades".
+     */
+    public List<WallapopOffer> searchNewOffers(ProductConfig product) {
+        return searchNewOffers(product, OfferSink.NONE);
+    }
 
-            // --- Extraer productos ---
-            List<WebElement> items = driver.findElements(By.cssSelector("a[href*='/item/']"));
-            for (WebElement el : items) {
-                try {
-                    String title = "";
-                    try { title = el.findElement(By.cssSelector("h3")).getText(); } catch (Exception ignored) {}
-                    String priceText = "";
-                    double price = 0;
-                    try {
-                        priceText = el.findElement(By.cssSelector("strong[aria-label='Item price']")).getText();
-                        price = Double.parseDouble(priceText.replaceAll("[^0-9,\\.]", "").replace(",", "."));
-                    } catch (Exception ignored) {}
-                    String url = el.getAttribute("href");
-                    String image = "";
-                    try { image = el.findElement(By.cssSelector("img")).getAttribute("src"); } catch (Exception ignored) {}
-
-                    if (price <= minPrice) {
-                        WallapopOffer offer = new WallapopOffer(null, title, priceText, url, price);
-                        offer.setImageUrl(image);
-                        offers.add(offer);
-                    }
-                } catch (Exception ignored) {}
-            }
+    /** Como {@link #searchNewOffers(ProductConfig)}, entregando cada página a {@code sink} según llega. */
+    public List<WallapopOffer> searchNewOffers(ProductConfig product, OfferSink sink) {
+        Consumer<List<WallapopOffer>> pageSink = page -> sink.accept(product.getName(), page);
+        HighWaterMark since = searchConfig.isIncremental() ? botState.getHighWaterMark(product.getName()) : null;
+
+        SearchResult result = search(product.getQuery(), serverParams(SearchParams.forProduct(product)),
+                product.getFilter(), since, pageSink);
+        if (searchConfig.isIncremental() && result.getNewest() != null) {
+            botState.setHighWaterMark(product.getName(), result.getNewest());
+        }
+        return result.getOffers();
+    }
 
-            log.info("📦 {} ofertas encontradas para '{}'", offers.size(), query);
+    // El filtrado y el orden los hace el servidor; el filtro local queda como red de seguridad
+    private SearchParams serverParams(SearchParams params) {
+        return params.orderBy(searchConfig.isIncremental() ? "newest" : searchConfig.getOrderBy());
+    }
+
+    private SearchResult search(String query, SearchParams params, OfferFilter filter, HighWaterMark since,
+                                Consumer<List<WallapopOffer>> pageSink) {
+        // Misma consulta y mismas reglas: se reutiliza el resultado reciente o la búsqueda en curso
+        String key = normalizeQuery(query) + params.toQueryString() + "|" + filter.getSignature();
+        SearchResult result = cache.getOrLoad(key, pageSink, sink -> fetch(query, params, filter, since, sink));
+        log.info("📦 {} ofertas encontradas para '{}' ({} páginas)", result.getOffers().size(), query, result.getPages());
+        return result;
+    }
 
-        } catch (Exception e) {
-            log.error("❌ Error en búsqueda con WebDriver: {}", e.getMessage(), e);
+    private SearchResult fetch(String query, SearchParams params, OfferFilter filter, HighWaterMark since,
+                               Consumer<List<WallapopOffer>> pageSink) {
+        try {
+            return backend.search(query, params, filter, since, pageSink);
+        } catch (SearchException e) {
+            if (fallback == null) throw e;
+            fallbackCounter.increment();
+            log.warn("⚠️ Backend {} falló para '{}' ({}). Usando {}...",
+                    backend.getName(), query, e.getMessage(), fallback.getName());
+            return fallback.search(query, params, filter, since, pageSink);
         }
+    }
 
-        return offers;
+    // Mismo tokenizador que las suscripciones: "Pokémon" y "pokemon" son la misma consulta
+    static String normalizeQuery(String query) {
+        return String.join(" ", SubscriptionIndex.tokens(query));
     }
-    
+
+    /**
+     * Agrupa los productos cuya consulta contiene todas las palabras de otra más
+     * general ("zelda switch oled" dentro de "zelda switch"). Cada grupo se busca
+     * una vez con la consulta general; la clave es el producto que la aporta.
+     */
+    static Map<ProductConfig, List<ProductConfig>> mergeOverlapping(List<ProductConfig> toSearch) {
+        List<Set<String>> tokens = new ArrayList<>();
+        for (ProductConfig product : toSearch) tokens.add(SubscriptionIndex.tokens(product.getQuery()));
+
+        Map<ProductConfig, List<ProductConfig>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < toSearch.size(); i++) {
+            int leader = i;
+            for (int j = 0; j < toSearch.size(); j++) {
+                // A igualdad de palabras (consultas idénticas) manda el primero
+                if (!tokens.get(j).isEmpty() && tokens.get(i).containsAll(tokens.get(j))
+                        && (tokens.get(j).size() < tokens.get(leader).size()
+                            || tokens.get(j).size() == tokens.get(leader).size() && j < leader)) {
+                    leader = j;
+                }
+            }
+            groups.computeIfAbsent(toSearch.get(leader), k -> new ArrayList<>()).add(toSearch.get(i));
+        }
+        return groups;
+    }
+
+    /** Agrupa los productos con la misma consulta (mismas palabras) para buscarla una sola vez. */
+    static Map<ProductConfig, List<ProductConfig>> groupIdentical(List<ProductConfig> toSearch) {
+        Map<String, ProductConfig> leaders = new HashMap<>();
+        Map<ProductConfig, List<ProductConfig>> groups = new LinkedHashMap<>();
+        for (ProductConfig product : toSearch) {
+            ProductConfig leader = leaders.computeIfAbsent(normalizeQuery(product.getQuery()), k -> product);
+            groups.computeIfAbsent(leader, k -> new ArrayList<>()).add(product);
+        }
+        return groups;
+    }
+
     public Map<String, List<WallapopOffer>> searchAllProducts() {
         Map<String, List<WallapopOffer>> results = new HashMap<>();
-        for (ProductConfig product : products) {
-            List<WallapopOffer> offers = searchProduct(product.getName(), product.getMinPrice());
-            if (!offers.isEmpty()) results.put(product.getName(), offers);
+        searchProducts(products).forEach((name, offers) -> {
+            if (!offers.isEmpty()) results.put(name, offers);
+        });
+        return results;
+    }
+
+    public Map<String, List<WallapopOffer>> searchProducts(List<ProductConfig> toSearch) {
+        return searchProducts(toSearch, OfferSink.NONE);
+    }
 
-            // Delay aleatorio entre búsquedas
+    /**
+     * Busca los productos indicados en paralelo. Las ofertas llegan a {@code sink}
+     * página a página mientras se busca; el mapa devuelto (con todos los productos
+     * terminados, tengan ofertas o no) solo está disponible al final. Los productos
+     * cuya búsqueda ha fallado no aparecen en él.
+     */
+    public Map<String, List<WallapopOffer>> searchProducts(List<ProductConfig> toSearch, OfferSink sink) {
+        // El delay entre búsquedas lo aplica el HostPacer compartido por los hilos
+        Map<ProductConfig, List<ProductConfig>> groups = searchConfig.isMergeQueries()
+                ? mergeOverlapping(toSearch)
+                : groupIdentical(toSearch);
+
+        Map<ProductConfig, Future<Map<String, List<WallapopOffer>>>> pending = new LinkedHashMap<>();
+        for (Map.Entry<ProductConfig, List<ProductConfig>> group : groups.entrySet()) {
+            ProductConfig leader = group.getKey();
+            List<ProductConfig> members = group.getValue();
+            pending.put(leader, searchExecutor.submit(() -> {
+                try {
+                    return members.size() == 1
+                            ? Map.of(leader.getName(), searchNewOffers(leader, sink))
+                            : searchGroup(leader, members, sink);
+                } finally {
+                    members.forEach(m -> sink.productDone(m.getName()));
+                }
+            }));
+        }
+
+        Map<String, List<WallapopOffer>> results = new LinkedHashMap<>();
+        for (Map.Entry<ProductConfig, Future<Map<String, List<WallapopOffer>>>> entry : pending.entrySet()) {
             try {
-                Thread.sleep(3000 + (long)(Math.random() * 4000));
+                results.putAll(entry.getValue().get());
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+                pending.values().forEach(f -> f.cancel(true));
                 break;
+            } catch (ExecutionException e) {
+                // Sin entrada en el resultado: el escaneo lo trata como fallido, no como "sin novedades"
+                log.error("❌ Error buscando '{}': {}", entry.getKey().getName(), e.getCause().getMessage(),
+                        e.getCause());
             }
         }
         return results;
     }
-/*
-    @PostConstruct
-    public void testSearch() {
-        List<WallapopOffer> offers = searchProduct("ps5", 100);
-        offers.forEach(o -> log.info("🎯 {} - {} - {}", o.getTitle(), o.getPrice(), o.getUrl()));
-    }*/
+
+    /**
+     * Busca un grupo de productos con la consulta del más general y reparte cada
+     * página entre ellos con sus propias reglas (y sus palabras en el título).
+     */
+    private Map<String, List<WallapopOffer>> searchGroup(ProductConfig leader, List<ProductConfig> members, OfferSink sink) {
+        List<OfferFilter> memberFilters = new ArrayList<>();
+        for (ProductConfig member : members) {
+            memberFilters.add(member == leader ? member.getFilter()
+                    : member.getFilter().requiringKeywords(SubscriptionIndex.tokens(member.getQuery())));
+        }
+        log.info("🔗 '{}' agrupa {} productos en una sola búsqueda", leader.getName(), members.size());
+
+        Map<String, List<WallapopOffer>> results = new LinkedHashMap<>();
+        members.forEach(m -> results.put(m.getName(), new ArrayList<>()));
+        OfferListing listing = new OfferListing();
+        Consumer<List<WallapopOffer>> fanOut = page -> {
+            for (int i = 0; i < members.size(); i++) {
+                List<WallapopOffer> accepted = new ArrayList<>();
+                for (WallapopOffer offer : page) {
+                    if (memberFilters.get(i).accepts(listing.reset(offer))) accepted.add(offer);
+                }
+                if (accepted.isEmpty()) continue;
+                results.get(members.get(i).getName()).addAll(accepted);
+                sink.accept(members.get(i).getName(), accepted);
+            }
+        };
+
+        HighWaterMark since = searchConfig.isIncremental() ? botState.getHighWaterMark(leader.getName()) : null;
+        SearchResult result = search(leader.getQuery(), serverParams(SearchParams.forGroup(members)),
+                OfferFilter.anyOf(memberFilters), since, fanOut);
+        if (searchConfig.isIncremental() && result.getNewest() != null) {
+            botState.setHighWaterMark(leader.getName(), result.getNewest());
+        }
+        return results;
+    }
 
     @PreDestroy
     public void shutdown() {
-        if (driver != null) {
-            try { driver.quit(); } catch (Exception ignored) {}
-        }
-        log.info("🛑 WebDriver cerrado");
+        searchExecutor.shutdownNow();
+        backend.close();
+        if (fallback != null) fallback.close();
     }
 
     public List<ProductConfig> getConfiguredProducts() {
         return new ArrayList<>(products);
     }
+
+    /** Todo lo que hay que buscar: los productos configurados y una búsqueda por consulta de suscripción. */
+    public List<ProductConfig> getSearchTargets() {
+        List<ProductConfig> targets = new ArrayList<>(products);
+        targets.addAll(subscriptions.getSearchTargets());
+        return targets;
+    }
 }
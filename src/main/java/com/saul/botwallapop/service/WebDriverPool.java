@@ -0,0 +1,156 @@
+package com.saul.botwallapop.service;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool acotado de sesiones de navegador. Cada sesión se comprueba antes de
+ * prestarse, se recicla tras {@code maxUses} búsquedas y se descarta si el
+ * navegador se cae durante su uso. Cada sesión ocupa un hueco ({@code 0..maxSize-1})
+ * que se pasa a la factoría, para que dos sesiones vivas nunca compartan perfil.
+ */
+public class WebDriverPool {
+
+    private static final Logger log = LoggerFactory.getLogger(WebDriverPool.class);
+
+    private final IntFunction<WebDriver> factory;
+    private final int maxSize;
+    private final int maxUses;
+    private final long borrowTimeoutMs;
+
+    private final BlockingQueue<PooledDriver> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private final BlockingQueue<Integer> freeSlots = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    public WebDriverPool(IntFunction<WebDriver> factory, int maxSize, int maxUses, long borrowTimeoutMs) {
+        this.factory = factory;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxUses = Math.max(1, maxUses);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        for (int slot = 0; slot < this.maxSize; slot++) freeSlots.add(slot);
+    }
+
+    /** Ejecuta {@code action} con una sesión del pool y la devuelve al terminar. */
+    public <T> T withDriver(Function<WebDriver, T> action) {
+        PooledDriver pooled = borrow();
+        boolean broken = false;
+        try {
+            return action.apply(pooled.driver);
+        } catch (RuntimeException e) {
+            broken = isDriverFailure(e);
+            throw e;
+        } finally {
+            release(pooled, broken);
+        }
+    }
+
+    /** Arranca una sesión por adelantado para que la primera búsqueda no espere a Chrome. */
+    public void warmUp() {
+        if (created.get() > 0) return;
+        PooledDriver pooled = borrow();
+        release(pooled, false);
+    }
+
+    private PooledDriver borrow() {
+        long deadline = System.currentTimeMillis() + borrowTimeoutMs;
+        while (!closed) {
+            PooledDriver pooled = idle.poll();
+            if (pooled != null) {
+                if (isHealthy(pooled)) return pooled;
+                log.warn("♻️ Sesión de navegador no responde, se reemplaza");
+                discard(pooled);
+                continue;
+            }
+
+            if (created.incrementAndGet() <= maxSize) {
+                Integer slot = freeSlots.poll();
+                try {
+                    PooledDriver fresh = new PooledDriver(factory.apply(slot), slot);
+                    log.info("🚀 WebDriver inicializado ({}/{})", created.get(), maxSize);
+                    return fresh;
+                } catch (RuntimeException e) {
+                    freeSlots.offer(slot);
+                    created.decrementAndGet();
+                    throw new SearchException("No se pudo arrancar el navegador: " + e.getMessage(), e);
+                }
+            }
+            created.decrementAndGet();
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) break;
+            try {
+                pooled = idle.poll(remaining, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SearchException("Espera de navegador interrumpida", e);
+            }
+            if (pooled != null) idle.offer(pooled); // se revalida en la siguiente vuelta
+        }
+        throw new SearchException(closed ? "Pool de navegadores cerrado"
+                : "No hay navegadores libres tras " + borrowTimeoutMs + "ms");
+    }
+
+    private void release(PooledDriver pooled, boolean broken) {
+        pooled.uses++;
+        if (closed || broken || pooled.uses >= maxUses) {
+            if (broken) log.warn("💥 Sesión de navegador caída, se descarta");
+            discard(pooled);
+        } else {
+            idle.offer(pooled);
+        }
+    }
+
+    private static boolean isDriverFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof WebDriverException) return true;
+        }
+        return false;
+    }
+
+    private boolean isHealthy(PooledDriver pooled) {
+        try {
+            pooled.driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledDriver pooled) {
+        try { pooled.driver.quit(); } catch (Exception ignored) {}
+        freeSlots.offer(pooled.slot);
+        created.decrementAndGet();
+    }
+
+    public int getCreatedCount() { return created.get(); }
+
+    public int getIdleCount() { return idle.size(); }
+
+    public void close() {
+        closed = true;
+        PooledDriver pooled;
+        while ((pooled = idle.poll()) != null) discard(pooled);
+        log.info("🛑 Pool de WebDriver cerrado");
+    }
+
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private final int slot;
+        private int uses;
+
+        private PooledDriver(WebDriver driver, int slot) {
+            this.driver = driver;
+            this.slot = slot;
+        }
+    }
+}
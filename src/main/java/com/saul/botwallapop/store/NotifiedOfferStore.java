@@ -0,0 +1,226 @@
+package com.saul.botwallapop.store;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.saul.botwallapop.config.StorageConfig;
+import com.saul.botwallapop.utils.ScalableBloomFilter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Anuncios ya notificados, indexados por su id compacto. Cada alta se añade a
+ * un log en disco ({@code id<TAB>epochMs}) que se compacta periódicamente,
+ * descartando entradas caducadas o las más antiguas si se supera el máximo.
+ * Opcionalmente un filtro de Bloom responde primero, y el mapa exacto solo se
+ * consulta cuando el filtro da un posible acierto.
+ */
+@Component
+public class NotifiedOfferStore {
+
+    private static final Logger log = LoggerFactory.getLogger(NotifiedOfferStore.class);
+
+    private final Map<String, Long> notified = new ConcurrentHashMap<>();
+    private final Path logFile;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final boolean bloomEnabled;
+    private final int bloomExpectedEntries;
+    private final double bloomFpp;
+    private volatile ScalableBloomFilter bloom;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    private final Object writeLock = new Object();
+    private BufferedWriter writer;
+
+    private final Counter dedupHits;
+    private final Counter dedupMisses;
+
+    public NotifiedOfferStore(StorageConfig config, MeterRegistry meterRegistry) {
+        this.logFile = Paths.get(config.getDataDir(), "notified-offers.log");
+        this.ttlMs = Duration.ofDays(config.getNotifiedTtlDays()).toMillis();
+        this.maxEntries = Math.max(1, config.getNotifiedMaxEntries());
+        this.bloomEnabled = config.isBloomEnabled();
+        this.bloomExpectedEntries = config.getBloomExpectedEntries();
+        this.bloomFpp = config.getBloomFpp();
+        this.dedupHits = meterRegistry.counter("wallapop.dedup.lookups", "result", "hit");
+        this.dedupMisses = meterRegistry.counter("wallapop.dedup.lookups", "result", "miss");
+        meterRegistry.gauge("wallapop.dedup.entries", notified, Map::size);
+    }
+
+    @PostConstruct
+    public void load() {
+        long start = System.nanoTime();
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        if (Files.exists(logFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab <= 0) continue;
+                    try {
+                        long ts = Long.parseLong(line.substring(tab + 1));
+                        if (ts >= cutoff) notified.put(line.substring(0, tab), ts);
+                    } catch (NumberFormatException ignored) {} // línea truncada por un cierre brusco
+                }
+            } catch (IOException e) {
+                log.error("❌ No se pudo leer {}: {}", logFile, e.getMessage());
+            }
+        }
+        compact();
+        log.info("💾 {} ofertas notificadas cargadas en {} ms",
+                notified.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean contains(String id) {
+        if (id == null) return false;
+        lookups.increment();
+        ScalableBloomFilter filter = bloom;
+        if (filter != null && !filter.mightContain(id)) {
+            dedupMisses.increment();
+            return false;
+        }
+
+        boolean found = notified.containsKey(id);
+        if (found) {
+            hits.increment();
+            dedupHits.increment();
+        } else {
+            if (filter != null) bloomFalsePositives.increment();
+            dedupMisses.increment();
+        }
+        return found;
+    }
+
+    /** Registra el id. Devuelve false si ya estaba. */
+    public boolean add(String id) {
+        if (id == null) return false;
+        long now = System.currentTimeMillis();
+        if (notified.putIfAbsent(id, now) != null) return false;
+
+        synchronized (writeLock) {
+            // Bajo el mismo candado que rebuildBloom: un alta no se pierde al cambiar de filtro
+            ScalableBloomFilter filter = bloom;
+            if (filter != null) filter.put(id);
+            try {
+                openWriter();
+                writer.write(id);
+                writer.write('\t');
+                writer.write(Long.toString(now));
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                log.error("❌ No se pudo persistir la oferta {}: {}", id, e.getMessage());
+            }
+        }
+        if (notified.size() > maxEntries + maxEntries / 10) compact();
+        return true;
+    }
+
+    public int size() {
+        return notified.size();
+    }
+
+    /** Elimina caducadas, recorta al máximo y reescribe el log con lo que queda. */
+    @Scheduled(fixedDelayString = "${wallapop.storage.compaction-interval-ms:3600000}",
+            initialDelayString = "${wallapop.storage.compaction-interval-ms:3600000}")
+    public void compact() {
+        synchronized (writeLock) {
+            long cutoff = System.currentTimeMillis() - ttlMs;
+            notified.values().removeIf(ts -> ts < cutoff);
+
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(notified.entrySet());
+            if (entries.size() > maxEntries) {
+                entries.sort(Map.Entry.comparingByValue());
+                int excess = entries.size() - maxEntries;
+                for (Map.Entry<String, Long> e : entries.subList(0, excess)) notified.remove(e.getKey());
+                entries = new ArrayList<>(entries.subList(excess, entries.size()));
+                log.info("🧹 {} ofertas antiguas descartadas del registro", excess);
+            }
+
+            if (bloomEnabled) rebuildBloom();
+
+            try {
+                closeWriter();
+                Files.createDirectories(logFile.toAbsolutePath().getParent());
+                Path tmp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+                try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    for (Map.Entry<String, Long> e : entries) {
+                        out.write(e.getKey());
+                        out.write('\t');
+                        out.write(Long.toString(e.getValue()));
+                        out.newLine();
+                    }
+                }
+                Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.error("❌ Error compactando {}: {}", logFile, e.getMessage());
+            }
+        }
+    }
+
+    // Un filtro de Bloom no admite borrados: tras expulsar entradas se reconstruye
+    private void rebuildBloom() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(
+                Math.max(bloomExpectedEntries, notified.size()), bloomFpp);
+        for (String id : notified.keySet()) filter.put(id);
+        bloom = filter;
+        log.info("🌸 {}", getBloomStats());
+    }
+
+    /** Tamaño y tasa de falsos positivos (estimada y observada) del filtro, o null si está desactivado. */
+    public String getBloomStats() {
+        ScalableBloomFilter filter = bloom;
+        if (filter == null) return null;
+        long negatives = lookups.sum() - hits.sum();
+        double observed = negatives > 0 ? (double) bloomFalsePositives.sum() / negatives : 0;
+        return String.format(Locale.ROOT, "Filtro Bloom: %.1f KB en %d filtro(s), FPR estimada %.3f%%, observada %.3f%%",
+                filter.memoryBytes() / 1024.0, filter.getFilterCount(), filter.expectedFpp() * 100, observed * 100);
+    }
+
+    private void openWriter() throws IOException {
+        if (writer != null) return;
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void closeWriter() {
+        if (writer == null) return;
+        try { writer.close(); } catch (IOException ignored) {}
+        writer = null;
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            closeWriter();
+        }
+    }
+}
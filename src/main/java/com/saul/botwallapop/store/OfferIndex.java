@@ -0,0 +1,257 @@
+package com.saul.botwallapop.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.saul.botwallapop.config.StorageConfig;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Índice de anuncios vistos por id (ver {@link com.saul.botwallapop.utils.OfferIds#numericKey}),
+ * con los últimos {@value #HISTORY} precios de cada uno y el último precio notificado.
+ * Todo se guarda en arrays primitivos (tablas hash de direccionamiento abierto), sin
+ * un objeto por anuncio. Está acotado con dos generaciones: cuando la actual se llena
+ * se descarta la anterior, y lo que se vuelve a ver en la anterior pasa a la actual.
+ * Se guarda en disco periódicamente y al cerrar.
+ */
+@Component
+public class OfferIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OfferIndex.class);
+
+    /** Precios guardados por anuncio (los más recientes). */
+    public static final int HISTORY = 4;
+
+    private static final int FILE_MAGIC = 0x57414c49; // "WALI"
+    private static final int NO_PRICE = -1;
+
+    private final Path file;
+    private final int generationItems;
+    private Generation current;
+    private Generation previous;
+
+    public OfferIndex(StorageConfig config, MeterRegistry meterRegistry) {
+        this.file = Paths.get(config.getDataDir(), "offer-index.bin");
+        this.generationItems = Math.max(16, config.getOfferIndexMaxItems() / 2);
+        this.current = new Generation(generationItems);
+        this.previous = new Generation(generationItems);
+        meterRegistry.gauge("wallapop.offer.index.entries", this, OfferIndex::size);
+    }
+
+    /**
+     * Registra que el anuncio se ha visto con {@code price} y devuelve el último
+     * precio notificado (o un valor negativo si nunca se notificó).
+     */
+    public synchronized double observe(long key, double price, long nowMs) {
+        int slot = slotFor(key);
+        current.recordPrice(slot, toCents(price), toMinutes(nowMs));
+        int notified = current.notifiedCents[slot];
+        return notified == NO_PRICE ? -1 : notified / 100.0;
+    }
+
+    /** Guarda {@code price} como último precio notificado del anuncio. */
+    public synchronized void markNotified(long key, double price) {
+        current.notifiedCents[slotFor(key)] = toCents(price);
+    }
+
+    /** Precios guardados del anuncio, del más antiguo al más reciente (vacío si no se conoce). */
+    public synchronized double[] priceHistory(long key) {
+        Generation gen = current;
+        int slot = gen.find(key);
+        if (slot < 0) {
+            gen = previous;
+            slot = gen.find(key);
+        }
+        if (slot < 0) return new double[0];
+        double[] prices = new double[gen.historyLen[slot]];
+        for (int i = 0; i < prices.length; i++) prices[i] = gen.prices[slot * HISTORY + i] / 100.0;
+        return prices;
+    }
+
+    public synchronized int size() {
+        return current.size + previous.size;
+    }
+
+    // Hueco del anuncio en la generación actual, creándolo (o trayéndolo de la anterior) si hace falta
+    private int slotFor(long key) {
+        int slot = current.find(key);
+        if (slot >= 0) return slot;
+        if (current.size >= generationItems) rotate();
+        int old = previous.find(key);
+        slot = current.insert(key);
+        if (old >= 0) current.copyFrom(previous, old, slot);
+        return slot;
+    }
+
+    // La generación anterior se descarta y sus arrays se reutilizan para la nueva
+    private void rotate() {
+        Generation dropped = previous;
+        previous = current;
+        dropped.clear();
+        current = dropped;
+        log.debug("🗂️ Índice de ofertas rotado ({} anuncios en la generación anterior)", previous.size);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (!Files.exists(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                log.warn("⚠️ {} no tiene un formato válido, se ignora", file);
+                return;
+            }
+            int count = in.readInt();
+            int[] prices = new int[HISTORY];
+            int[] minutes = new int[HISTORY];
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                int notified = in.readInt();
+                int len = in.readByte();
+                for (int h = 0; h < len; h++) {
+                    prices[h] = in.readInt();
+                    minutes[h] = in.readInt();
+                }
+                int slot = slotFor(key);
+                current.notifiedCents[slot] = notified;
+                current.historyLen[slot] = 0;
+                for (int h = 0; h < len; h++) current.recordPrice(slot, prices[h], minutes[h]);
+            }
+            log.info("💾 Índice de ofertas cargado: {} anuncios", size());
+        } catch (IOException e) {
+            log.error("❌ No se pudo leer {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallapop.storage.compaction-interval-ms:3600000}",
+            initialDelayString = "${wallapop.storage.compaction-interval-ms:3600000}")
+    @PreDestroy
+    public synchronized void save() {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(size());
+                // Primero la anterior: al cargar, lo de la actual sobrescribe lo repetido
+                previous.writeTo(out);
+                current.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("❌ Error guardando {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static int toCents(double price) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, Math.round(price * 100)));
+    }
+
+    private static int toMinutes(long epochMs) {
+        return (int) (epochMs / 60_000);
+    }
+
+    /** Tabla hash de claves {@code long} con sondeo lineal; la clave 0 marca hueco libre. */
+    private static final class Generation {
+        private final long[] keys;
+        private final int[] notifiedCents;
+        private final byte[] historyLen;
+        private final int[] prices;    // HISTORY por anuncio, en céntimos
+        private final int[] minutes;   // minuto (epoch) de cada precio
+        private final int mask;
+        private int size;
+
+        private Generation(int maxItems) {
+            // Ocupación máxima en torno al 70 %
+            int capacity = Integer.highestOneBit(Math.max(16, (int) (maxItems / 0.7)) - 1) << 1;
+            keys = new long[capacity];
+            notifiedCents = new int[capacity];
+            historyLen = new byte[capacity];
+            prices = new int[capacity * HISTORY];
+            minutes = new int[capacity * HISTORY];
+            mask = capacity - 1;
+            Arrays.fill(notifiedCents, NO_PRICE);
+        }
+
+        private int find(long key) {
+            for (int i = index(key); ; i = (i + 1) & mask) {
+                if (keys[i] == key) return i;
+                if (keys[i] == 0) return -1;
+            }
+        }
+
+        private int insert(long key) {
+            int i = index(key);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = key;
+            size++;
+            return i;
+        }
+
+        private int index(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        // Solo se añade un precio si cambia respecto al último; si no, se actualiza su fecha
+        private void recordPrice(int slot, int cents, int minute) {
+            int base = slot * HISTORY;
+            int len = historyLen[slot];
+            if (len > 0 && prices[base + len - 1] == cents) {
+                minutes[base + len - 1] = minute;
+                return;
+            }
+            if (len == HISTORY) {
+                System.arraycopy(prices, base + 1, prices, base, HISTORY - 1);
+                System.arraycopy(minutes, base + 1, minutes, base, HISTORY - 1);
+                len--;
+            }
+            prices[base + len] = cents;
+            minutes[base + len] = minute;
+            historyLen[slot] = (byte) (len + 1);
+        }
+
+        private void copyFrom(Generation other, int from, int to) {
+            notifiedCents[to] = other.notifiedCents[from];
+            historyLen[to] = other.historyLen[from];
+            System.arraycopy(other.prices, from * HISTORY, prices, to * HISTORY, HISTORY);
+            System.arraycopy(other.minutes, from * HISTORY, minutes, to * HISTORY, HISTORY);
+        }
+
+        private void clear() {
+            Arrays.fill(keys, 0);
+            Arrays.fill(notifiedCents, NO_PRICE);
+            Arrays.fill(historyLen, (byte) 0);
+            size = 0;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == 0) continue;
+                out.writeLong(keys[i]);
+                out.writeInt(notifiedCents[i]);
+                out.writeByte(historyLen[i]);
+                for (int h = 0; h < historyLen[i]; h++) {
+                    out.writeInt(prices[i * HISTORY + h]);
+                    out.writeInt(minutes[i * HISTORY + h]);
+                }
+            }
+        }
+    }
+}
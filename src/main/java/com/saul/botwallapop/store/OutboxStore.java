@@ -0,0 +1,235 @@
+package com.saul.botwallapop.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saul.botwallapop.config.StorageConfig;
+import com.saul.botwallapop.model.OutboundMessage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cola persistente de mensajes salientes. Es un log de segmentos mapeados en
+ * memoria ({@code outbox-NNNNNN.seg}) donde se añaden registros de mensaje y de
+ * confirmación (ack). Al arrancar se releen los segmentos y se devuelven los
+ * mensajes sin ack. Un segmento se borra cuando es el más antiguo y todos sus
+ * mensajes están confirmados.
+ *
+ * <p>Registro: {@code [int longitud][int crc][byte tipo][long seq][payload]}.
+ */
+@Component
+public class OutboxStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxStore.class);
+
+    private static final byte TYPE_MESSAGE = 1;
+    private static final byte TYPE_ACK = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 1 + 8;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TreeMap<Integer, Set<Long>> liveBySegment = new TreeMap<>();
+    private final Map<Long, Integer> segmentOfSeq = new HashMap<>();
+    private final Map<Long, OutboundMessage> recovered = new LinkedHashMap<>();
+
+    private int currentSegment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSeq = 1;
+
+    public OutboxStore(StorageConfig config) {
+        this.dir = Paths.get(config.getDataDir(), "outbox");
+        this.segmentBytes = config.getOutboxSegmentBytes();
+        this.fsync = config.isOutboxFsync();
+    }
+
+    @PostConstruct
+    public synchronized void load() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+
+        List<Integer> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "outbox-*.seg")) {
+            for (Path file : files) segments.add(segmentId(file));
+        }
+        segments.sort(null);
+
+        int writePosition = 0;
+        for (int segment : segments) {
+            writePosition = replaySegment(segment);
+            currentSegment = segment;
+        }
+        if (segments.isEmpty()) currentSegment = 1;
+        openSegment(currentSegment, Math.max(segmentBytes, writePosition), writePosition);
+        deleteAckedSegments();
+
+        log.info("📮 Cola persistente: {} mensajes pendientes recuperados en {} ms",
+                recovered.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Mensajes sin confirmar encontrados al arrancar, con su número de secuencia. Solo se entregan una vez. */
+    public synchronized Map<Long, OutboundMessage> drainRecovered() {
+        Map<Long, OutboundMessage> result = new LinkedHashMap<>(recovered);
+        recovered.clear();
+        return result;
+    }
+
+    public synchronized long append(OutboundMessage message) {
+        long seq = nextSeq++;
+        try {
+            write(TYPE_MESSAGE, seq, objectMapper.writeValueAsBytes(message));
+            liveBySegment.computeIfAbsent(currentSegment, s -> new HashSet<>()).add(seq);
+            segmentOfSeq.put(seq, currentSegment);
+        } catch (IOException e) {
+            log.error("❌ No se pudo guardar el mensaje en la cola persistente: {}", e.getMessage());
+        }
+        return seq;
+    }
+
+    public synchronized void ack(long seq) {
+        Integer segment = segmentOfSeq.remove(seq);
+        if (segment == null) return;
+        try {
+            write(TYPE_ACK, seq, new byte[0]);
+        } catch (IOException e) {
+            log.error("❌ No se pudo confirmar el mensaje {} en la cola persistente: {}", seq, e.getMessage());
+        }
+        Set<Long> live = liveBySegment.get(segment);
+        if (live != null) live.remove(seq);
+        deleteAckedSegments();
+    }
+
+    public synchronized int pendingCount() {
+        return segmentOfSeq.size();
+    }
+
+    private void write(byte type, long seq, byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (buffer.remaining() < size + 4) { // +4: marca de fin (longitud 0)
+            if (fsync) buffer.force();
+            openSegment(currentSegment + 1, Math.max(segmentBytes, size + 4), 0);
+        }
+        int start = buffer.position();
+        buffer.putInt(0); // la longitud se escribe al final: un registro a medias queda como fin de log
+        buffer.putInt(crc(type, seq, payload));
+        buffer.put(type);
+        buffer.putLong(seq);
+        buffer.put(payload);
+        buffer.putInt(start, payload.length + 1);
+        if (fsync) buffer.force();
+    }
+
+    private int replaySegment(int segment) throws IOException {
+        Path file = segmentPath(segment);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            while (in.remaining() >= HEADER_BYTES) {
+                int start = in.position();
+                int length = in.getInt() - 1;
+                if (length < 0 || in.remaining() < HEADER_BYTES - 4 + length) {
+                    in.position(start);
+                    break;
+                }
+                int crc = in.getInt();
+                byte type = in.get();
+                long seq = in.getLong();
+                byte[] payload = new byte[length];
+                in.get(payload);
+                if (crc != crc(type, seq, payload)) {
+                    log.warn("⚠️ Registro corrupto en {} (offset {}), se ignora el resto", file, start);
+                    in.position(start);
+                    break;
+                }
+
+                nextSeq = Math.max(nextSeq, seq + 1);
+                if (type == TYPE_MESSAGE) {
+                    recovered.put(seq, objectMapper.readValue(payload, OutboundMessage.class));
+                    liveBySegment.computeIfAbsent(segment, s -> new HashSet<>()).add(seq);
+                    segmentOfSeq.put(seq, segment);
+                } else if (type == TYPE_ACK) {
+                    recovered.remove(seq);
+                    Integer owner = segmentOfSeq.remove(seq);
+                    if (owner != null) liveBySegment.get(owner).remove(seq);
+                }
+            }
+            liveBySegment.computeIfAbsent(segment, s -> new HashSet<>());
+            return in.position();
+        }
+    }
+
+    private void openSegment(int segment, int size, int position) throws IOException {
+        if (channel != null) channel.close();
+        currentSegment = segment;
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.position(position);
+        liveBySegment.computeIfAbsent(segment, s -> new HashSet<>());
+    }
+
+    // Borra por orden los segmentos más antiguos ya confirmados por completo
+    private void deleteAckedSegments() {
+        while (!liveBySegment.isEmpty()) {
+            Map.Entry<Integer, Set<Long>> oldest = liveBySegment.firstEntry();
+            if (oldest.getKey() == currentSegment || !oldest.getValue().isEmpty()) return;
+            try {
+                Files.deleteIfExists(segmentPath(oldest.getKey()));
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el segmento {}: {}", oldest.getKey(), e.getMessage());
+                return;
+            }
+            liveBySegment.remove(oldest.getKey());
+        }
+    }
+
+    private static int crc(byte type, long seq, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        for (int i = 7; i >= 0; i--) crc.update((int) (seq >>> (i * 8)));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private Path segmentPath(int segment) {
+        return dir.resolve(String.format("outbox-%06d.seg", segment));
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring("outbox-".length(), name.length() - ".seg".length()));
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (buffer != null) buffer.force();
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            log.warn("Error cerrando la cola persistente: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.saul.botwallapop.store;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.saul.botwallapop.config.ProductsConfig;
+import com.saul.botwallapop.config.StorageConfig;
+import com.saul.botwallapop.filter.SubscriptionIndex;
+import com.saul.botwallapop.model.ProductConfig;
+import com.saul.botwallapop.model.Subscription;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Suscripciones por chat, guardadas en {@code subscriptions.tsv}
+ * ({@code id<TAB>chatId<TAB>producto}). Cada cambio reescribe el fichero y
+ * reconstruye el índice de palabras y la lista de búsquedas: una por consulta
+ * distinta, con las reglas más amplias de sus suscriptores para que Wallapop
+ * filtre lo que nadie quiere.
+ */
+@Component
+public class SubscriptionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionStore.class);
+
+    /** Prefijo del nombre de las búsquedas que salen de suscripciones. */
+    public static final String TARGET_PREFIX = "📬 ";
+
+    private final Path file;
+    private final int maxPerChat;
+    private final Map<Long, Subscription> subscriptions = new LinkedHashMap<>();
+    private long nextId = 1;
+
+    private volatile SubscriptionIndex index = SubscriptionIndex.EMPTY;
+    private volatile List<ProductConfig> searchTargets = List.of();
+
+    public SubscriptionStore(StorageConfig config, MeterRegistry meterRegistry) {
+        this.file = Paths.get(config.getDataDir(), "subscriptions.tsv");
+        this.maxPerChat = config.getSubscriptionsMaxPerChat();
+        meterRegistry.gauge("wallapop.subscriptions", this, s -> s.index.size());
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (!Files.exists(file)) return;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length < 3) continue;
+                try {
+                    long id = Long.parseLong(parts[0]);
+                    long chatId = Long.parseLong(parts[1]);
+                    subscriptions.put(id, new Subscription(id, chatId, parts[2], ProductsConfig.parseProduct(parts[2])));
+                    nextId = Math.max(nextId, id + 1);
+                } catch (IllegalArgumentException e) {
+                    log.warn("⚠️ Suscripción ignorada ({}): {}", e.getMessage(), line);
+                }
+            }
+        } catch (IOException e) {
+            log.error("❌ No se pudo leer {}: {}", file, e.getMessage());
+        }
+        rebuild();
+        log.info("📬 {} suscripciones cargadas", subscriptions.size());
+    }
+
+    /** Da de alta una suscripción; lanza IllegalArgumentException si el formato no es válido o hay demasiadas. */
+    public synchronized Subscription add(long chatId, String spec) {
+        spec = spec.replaceAll("[\\t\\r\\n]+", " ").trim();
+        ProductConfig product = ProductsConfig.parseProduct(spec);
+        if (maxPerChat > 0 && forChat(chatId).size() >= maxPerChat) {
+            throw new IllegalArgumentException("máximo de " + maxPerChat + " suscripciones por chat");
+        }
+        Subscription subscription = new Subscription(nextId++, chatId, spec, product);
+        subscriptions.put(subscription.getId(), subscription);
+        changed();
+        return subscription;
+    }
+
+    /** Da de baja la suscripción si es de ese chat. */
+    public synchronized boolean remove(long chatId, long id) {
+        Subscription subscription = subscriptions.get(id);
+        if (subscription == null || subscription.getChatId() != chatId) return false;
+        subscriptions.remove(id);
+        changed();
+        return true;
+    }
+
+    public synchronized List<Subscription> forChat(long chatId) {
+        return subscriptions.values().stream().filter(s -> s.getChatId() == chatId).toList();
+    }
+
+    public SubscriptionIndex getIndex() { return index; }
+
+    /** Una búsqueda por consulta distinta, con las reglas más amplias de sus suscriptores. */
+    public List<ProductConfig> getSearchTargets() { return searchTargets; }
+
+    public static boolean isSearchTarget(String productName) {
+        return productName.startsWith(TARGET_PREFIX);
+    }
+
+    private void changed() {
+        rebuild();
+        save();
+    }
+
+    private void rebuild() {
+        index = SubscriptionIndex.build(subscriptions.values());
+
+        Map<String, List<ProductConfig>> byQuery = new LinkedHashMap<>();
+        for (Subscription s : subscriptions.values()) {
+            String query = String.join(" ", SubscriptionIndex.tokens(s.getProduct().getQuery()));
+            if (!query.isEmpty()) byQuery.computeIfAbsent(query, k -> new ArrayList<>()).add(s.getProduct());
+        }
+        List<ProductConfig> targets = new ArrayList<>();
+        byQuery.forEach((query, products) -> targets.add(widest(query, products)));
+        searchTargets = List.copyOf(targets);
+    }
+
+    // Reglas que aceptan todo lo que acepte alguno: el filtro fino lo hace el índice
+    private static ProductConfig widest(String query, List<ProductConfig> products) {
+        ProductConfig target = new ProductConfig(TARGET_PREFIX + query, 0);
+        target.setQuery(query);
+        boolean unbounded = products.stream().anyMatch(p -> p.getMinPrice() <= 0);
+        if (!unbounded) target.setMinPrice(products.stream().mapToDouble(ProductConfig::getMinPrice).max().orElse(0));
+        target.setPriceFrom(products.stream().mapToDouble(ProductConfig::getPriceFrom).min().orElse(0));
+        target.setShippingRequired(products.stream().allMatch(ProductConfig::isShippingRequired));
+        if (shared(products, ProductConfig::getConditions)) target.setConditions(products.get(0).getConditions());
+        if (shared(products, ProductConfig::getCategoryIds)) target.setCategoryIds(products.get(0).getCategoryIds());
+        if (shared(products, p -> List.of(p.getLatitude(), p.getLongitude(), p.getRadiusKm()))) {
+            target.setLatitude(products.get(0).getLatitude());
+            target.setLongitude(products.get(0).getLongitude());
+            target.setRadiusKm(products.get(0).getRadiusKm());
+        }
+        return target;
+    }
+
+    private static boolean shared(List<ProductConfig> products, Function<ProductConfig, Object> value) {
+        Object first = value.apply(products.get(0));
+        return products.stream().allMatch(p -> Objects.equals(first, value.apply(p)));
+    }
+
+    private void save() {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Subscription s : subscriptions.values()) {
+                    out.write(s.getId() + "\t" + s.getChatId() + "\t" + s.getSpec());
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("❌ Error guardando {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.saul.botwallapop.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de tamaño fijo, seguro entre hilos (los bits se activan con CAS).
+ * Trabaja sobre un hash de 64 bits ya calculado, usando doble hashing para los k índices.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+    private final int capacity;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public BloomFilter(int capacity, double fpp) {
+        this.capacity = Math.max(1, capacity);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-this.capacity * Math.log(fpp) / (ln2 * ln2));
+        this.numBits = Math.max(64, (m + 63) / 64 * 64);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / this.capacity * ln2));
+        this.bits = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    public void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % numBits;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long old;
+            do {
+                old = bits.get(word);
+                if ((old & mask) != 0) break;
+            } while (!bits.compareAndSet(word, old, old | mask));
+        }
+        count.incrementAndGet();
+    }
+
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % numBits;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) return false;
+        }
+        return true;
+    }
+
+    public boolean isFull() { return count.get() >= capacity; }
+
+    public int getCapacity() { return capacity; }
+
+    public int getCount() { return count.get(); }
+
+    /** Probabilidad de falso positivo estimada con los elementos insertados hasta ahora. */
+    public double expectedFpp() {
+        return Math.pow(1 - Math.exp(-(double) numHashes * count.get() / numBits), numHashes);
+    }
+
+    public long memoryBytes() { return numBits / 8; }
+
+    /** Hash de 64 bits de una cadena (FNV-1a con mezcla final de MurmurHash3). */
+    public static long hash64(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
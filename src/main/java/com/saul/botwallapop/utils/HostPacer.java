@@ -0,0 +1,47 @@
+package com.saul.botwallapop.utils;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Espaciado mínimo entre peticiones a un mismo host, compartido por todos los
+ * hilos de búsqueda. Cada llamada reserva el siguiente hueco libre
+ * (intervalo + jitter aleatorio) y duerme hasta que llega.
+ */
+public class HostPacer {
+
+    private final long minIntervalMs;
+    private final long jitterMs;
+    private final Map<String, Long> nextSlot = new ConcurrentHashMap<>();
+
+    public HostPacer(long minIntervalMs, long jitterMs) {
+        this.minIntervalMs = Math.max(0, minIntervalMs);
+        this.jitterMs = Math.max(0, jitterMs);
+    }
+
+    public void acquire(String url) throws InterruptedException {
+        String host = hostOf(url);
+        long now = System.currentTimeMillis();
+        long gap = minIntervalMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs) : 0);
+
+        long[] slot = new long[1];
+        nextSlot.compute(host, (h, next) -> {
+            slot[0] = next == null ? now : Math.max(now, next);
+            return slot[0] + gap;
+        });
+
+        long wait = slot[0] - now;
+        if (wait > 0) Thread.sleep(wait);
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
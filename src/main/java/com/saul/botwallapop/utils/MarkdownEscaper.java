@@ -0,0 +1,49 @@
+package com.saul.botwallapop.utils;
+
+/**
+ * Escapa los caracteres especiales de Markdown de Telegram
+ * ({@code _ * [ ] ( ) `}) en una sola pasada. Si no hay nada que escapar
+ * devuelve el mismo texto sin copiarlo.
+ */
+public final class MarkdownEscaper {
+
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static {
+        for (char c : "_*[]()`".toCharArray()) SPECIAL[c] = true;
+    }
+
+    private MarkdownEscaper() {}
+
+    public static String escape(String text) {
+        if (text == null) return "";
+        int first = firstSpecial(text);
+        if (first < 0) return text;
+        StringBuilder sb = new StringBuilder(text.length() + 8);
+        sb.append(text, 0, first);
+        appendEscaped(text, first, sb);
+        return sb.toString();
+    }
+
+    /** Añade {@code text} escapado al final de {@code out}. */
+    public static void escape(CharSequence text, StringBuilder out) {
+        if (text == null) return;
+        appendEscaped(text, 0, out);
+    }
+
+    private static void appendEscaped(CharSequence text, int from, StringBuilder out) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128 && SPECIAL[c]) out.append('\\');
+            out.append(c);
+        }
+    }
+
+    private static int firstSpecial(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128 && SPECIAL[c]) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,66 @@
+package com.saul.botwallapop.utils;
+
+/**
+ * Identificadores de anuncio a partir de la URL pública
+ * ({@code https://es.wallapop.com/item/<slug>-<id numérico>}).
+ */
+public class OfferIds {
+
+    private static final String SCOPED_PREFIX = "chat:";
+
+    /** Slug del anuncio (lo que va tras {@code /item/}), o la URL entera si no lo tiene. */
+    public static String itemKey(String url) {
+        if (url == null) return null;
+        int start = url.indexOf("/item/");
+        if (start < 0) return url;
+        start += 6;
+        int end = start;
+        while (end < url.length() && "?#/".indexOf(url.charAt(end)) < 0) end++;
+        return url.substring(start, end);
+    }
+
+    /**
+     * Identificador compacto del anuncio: el número final del slug si lo tiene
+     * ({@code consola-switch-1098765432} → {@code 1098765432}), si no el slug.
+     */
+    public static String compactId(String url) {
+        String key = itemKey(url);
+        if (key == null) return null;
+        int dash = key.lastIndexOf('-');
+        String tail = key.substring(dash + 1);
+        if (tail.length() >= 6 && tail.chars().allMatch(Character::isDigit)) return tail;
+        return key;
+    }
+
+    /**
+     * Clave numérica del anuncio para índices en arrays primitivos: el id numérico
+     * del slug si lo tiene o, si no, un hash de 64 bits del id compacto. Nunca es 0.
+     */
+    public static long numericKey(String url) {
+        String id = compactId(url);
+        if (id == null) return 0;
+        long key;
+        if (!id.isEmpty() && id.length() <= 18 && id.chars().allMatch(Character::isDigit)) {
+            key = Long.parseLong(id);
+        } else {
+            long h = 0xcbf29ce484222325L; // FNV-1a
+            for (int i = 0; i < id.length(); i++) {
+                h ^= id.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            key = h | Long.MIN_VALUE; // negativo: no choca con los ids numéricos
+        }
+        return key == 0 ? 1 : key;
+    }
+
+    /** Id de deduplicación de un anuncio para un chat concreto (suscripciones). */
+    public static String scopedId(long chatId, String url) {
+        return SCOPED_PREFIX + chatId + ":" + compactId(url);
+    }
+
+    /** Id con el que se deduplica: los ids de chat se dejan tal cual y las URLs se compactan. */
+    public static String dedupId(String urlOrScopedId) {
+        if (urlOrScopedId != null && urlOrScopedId.startsWith(SCOPED_PREFIX)) return urlOrScopedId;
+        return compactId(urlOrScopedId);
+    }
+}
@@ -0,0 +1,58 @@
+package com.saul.botwallapop.utils;
+
+/**
+ * Parseo de precios con formato español ({@code "1.234,56 €"}, {@code "40,50€"},
+ * {@code "2.000 €"}) en una sola pasada y sin expresiones regulares. También
+ * acepta el punto como decimal ({@code "12.99"}) cuando no puede ser separador
+ * de miles.
+ */
+public final class PriceParser {
+
+    private PriceParser() {}
+
+    /** Devuelve el precio, o 0 si el texto no contiene ninguna cifra. */
+    public static double parse(CharSequence text) {
+        if (text == null) return 0;
+        long digits = 0;
+        int digitCount = 0;
+        int decimals = -1;           // cifras tras el separador decimal, -1 si aún no hay
+        int dots = 0;
+        int digitsAfterLastDot = 0;
+        boolean lastDotCandidate = false; // el último '.' puede ser decimal
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digitCount < 18) {
+                    digits = digits * 10 + (c - '0');
+                    digitCount++;
+                    if (decimals >= 0) decimals++;
+                }
+                if (dots > 0) digitsAfterLastDot++;
+            } else if (c == ',') {
+                if (decimals >= 0) break; // segunda coma: fin del número
+                decimals = 0;
+                lastDotCandidate = false;
+            } else if (c == '.') {
+                if (decimals >= 0) break;
+                dots++;
+                digitsAfterLastDot = 0;
+                lastDotCandidate = true;
+            } else if (digitCount > 0 && c != ' ' && c != '\u00A0' && c != '\u202F') {
+                break; // "€" u otro texto tras el número
+            }
+        }
+        if (digitCount == 0) return 0;
+
+        // Un único punto seguido de 1-2 cifras (y sin coma) es el decimal: "12.99"
+        if (decimals < 0 && lastDotCandidate && dots == 1 && digitsAfterLastDot > 0 && digitsAfterLastDot != 3) {
+            decimals = digitsAfterLastDot;
+        }
+        if (decimals <= 0) return digits;
+        return digits / POWERS_OF_TEN[Math.min(decimals, POWERS_OF_TEN.length - 1)];
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000
+    };
+}
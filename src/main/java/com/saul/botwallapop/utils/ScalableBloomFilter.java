@@ -0,0 +1,68 @@
+package com.saul.botwallapop.utils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Filtro de Bloom que crece: cuando el filtro actual se llena se añade otro del
+ * doble de capacidad y con la mitad de probabilidad de falso positivo, de modo
+ * que la tasa global se mantiene por debajo de la configurada.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final int initialCapacity;
+    private final double fpp;
+    private final List<BloomFilter> filters = new CopyOnWriteArrayList<>();
+
+    public ScalableBloomFilter(int initialCapacity, double fpp) {
+        this.initialCapacity = Math.max(1, initialCapacity);
+        this.fpp = fpp;
+        filters.add(new BloomFilter(this.initialCapacity, fpp * TIGHTENING));
+    }
+
+    public void put(String value) {
+        long hash = BloomFilter.hash64(value);
+        BloomFilter current = filters.get(filters.size() - 1);
+        if (current.isFull()) current = grow(current);
+        current.put(hash);
+    }
+
+    public boolean mightContain(String value) {
+        long hash = BloomFilter.hash64(value);
+        for (BloomFilter filter : filters) {
+            if (filter.mightContain(hash)) return true;
+        }
+        return false;
+    }
+
+    private synchronized BloomFilter grow(BloomFilter full) {
+        BloomFilter last = filters.get(filters.size() - 1);
+        if (last != full) return last; // otro hilo ya lo amplió
+        int n = filters.size();
+        BloomFilter next = new BloomFilter(full.getCapacity() * GROWTH, fpp * Math.pow(TIGHTENING, n + 1));
+        filters.add(next);
+        return next;
+    }
+
+    /** Probabilidad de falso positivo estimada del conjunto de filtros. */
+    public double expectedFpp() {
+        double none = 1;
+        for (BloomFilter filter : filters) none *= 1 - filter.expectedFpp();
+        return 1 - none;
+    }
+
+    public long memoryBytes() {
+        long total = 0;
+        for (BloomFilter filter : filters) total += filter.memoryBytes();
+        return total;
+    }
+
+    public int getFilterCount() { return filters.size(); }
+
+    public int getInitialCapacity() { return initialCapacity; }
+
+    public double getFpp() { return fpp; }
+}
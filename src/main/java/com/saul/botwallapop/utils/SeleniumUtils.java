@@ -1,14 +1,54 @@
 package com.saul.botwallapop.utils;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.saul.botwallapop.config.SearchConfig;
 
 public class SeleniumUtils {
-    public static WebDriver createHeadlessDriver() {
-        WebDriverManager.chromedriver().setup();
 
+    private static final Logger log = LoggerFactory.getLogger(SeleniumUtils.class);
+
+    /**
+     * Navegador para el backend Selenium. En modo ligero no descarga imágenes,
+     * vídeo, fuentes ni dominios de terceros, y usa un perfil persistente por
+     * hueco del pool (caché HTTP en disco y cookies, incluido el consentimiento),
+     * que sobrevive al reciclado de la sesión. La caché no se comparte entre huecos:
+     * Chrome no admite varios procesos escribiendo en el mismo índice.
+     */
+    public static WebDriver createSearchDriver(SearchConfig config, int slot) {
+        ChromeOptions options = baseOptions();
+        if (!config.isLeanBrowser()) return new ChromeDriver(options);
+
+        Path profile = Paths.get(config.getBrowserProfileDir(), "slot-" + slot).toAbsolutePath();
+        options.addArguments("--user-data-dir=" + profile);
+        options.addArguments("--blink-settings=imagesEnabled=false");
+        options.addArguments("--mute-audio");
+        options.setExperimentalOption("prefs", Map.of("profile.managed_default_content_settings.images", 2));
+        // Basta con el DOM: no esperamos a que termine de cargar todo lo demás
+        options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+
+        ChromeDriver driver = new ChromeDriver(options);
+        try {
+            driver.executeCdpCommand("Network.enable", Map.of());
+            driver.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", config.getBlockedUrls()));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo activar el bloqueo de recursos por CDP: {}", e.getMessage());
+        }
+        return driver;
+    }
+
+    private static ChromeOptions baseOptions() {
+        // El binario de chromedriver lo resuelve Selenium Manager
         ChromeOptions options = new ChromeOptions();
         options.addArguments("--headless=new"); // modo sin ventana
         options.addArguments("--disable-gpu");
@@ -16,9 +56,12 @@ public class SeleniumUtils {
         options.addArguments("--disable-dev-shm-usage");
         options.addArguments("--window-size=1920,1080");
         options.addArguments("--lang=es-ES");
+        options.addArguments("--start-maximized");
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.setExperimentalOption("excludeSwitches", List.of("enable-automation"));
+        options.setExperimentalOption("useAutomationExtension", false);
         options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
                 + "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36");
-
-        return new ChromeDriver(options);
+        return options;
     }
 }
@@ -0,0 +1,60 @@
+package com.saul.botwallapop.utils;
+
+/**
+ * Limitador token bucket: {@code capacity} envíos de ráfaga y recarga continua a
+ * {@code ratePerSecond}. Admite pausas explícitas (p. ej. el retry_after de Telegram).
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public TokenBucket(double capacity, double ratePerSecond) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    public synchronized boolean tryAcquire() {
+        long now = refill();
+        if (now - pausedUntil < 0 || tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    /** Espera (bloqueando) hasta conseguir un token. */
+    public void acquire() throws InterruptedException {
+        while (!tryAcquire()) {
+            long nanos = nanosUntilAvailable();
+            Thread.sleep(Math.max(1, nanos / 1_000_000));
+        }
+    }
+
+    /** Nanosegundos hasta que haya un token disponible (0 si ya lo hay). */
+    public synchronized long nanosUntilAvailable() {
+        long now = refill();
+        long paused = Math.max(0, pausedUntil - now);
+        long refill = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        return Math.max(paused, refill);
+    }
+
+    /** Bloquea el bucket durante {@code nanos}, vaciándolo. */
+    public synchronized void pauseFor(long nanos) {
+        long now = refill();
+        long until = now + nanos;
+        if (until - pausedUntil > 0) pausedUntil = until;
+        tokens = 0;
+    }
+
+    private long refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        return now;
+    }
+}
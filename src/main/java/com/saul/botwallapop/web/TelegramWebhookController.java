@@ -0,0 +1,132 @@
+package com.saul.botwallapop.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.saul.botwallapop.config.WebhookConfig;
+import com.saul.botwallapop.service.TelegramBotService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Recibe los updates de Telegram por webhook ({@code telegram.bot.mode=webhook})
+ * en lugar de long polling. Comprueba el secret token, responde enseguida y
+ * procesa el update en un pool acotado; si la cola está llena responde 503 y
+ * Telegram lo reintenta más tarde.
+ */
+@RestController
+@ConditionalOnProperty(name = "telegram.bot.mode", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    private static final Logger log = LoggerFactory.getLogger(TelegramWebhookController.class);
+
+    private static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private final TelegramBotService botService;
+    private final WebhookConfig config;
+    private final byte[] secret;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter unauthorized;
+
+    public TelegramWebhookController(TelegramBotService botService, WebhookConfig config, MeterRegistry meterRegistry) {
+        if (config.getSecretToken() == null || config.getSecretToken().isBlank()) {
+            throw new IllegalStateException("telegram.webhook.secret-token es obligatorio en modo webhook");
+        }
+        this.botService = botService;
+        this.config = config;
+        this.secret = config.getSecretToken().getBytes(StandardCharsets.UTF_8);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, config.getThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueSize())), r -> {
+                    Thread t = new Thread(r, "telegram-webhook-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.accepted = meterRegistry.counter("telegram.webhook.updates", "result", "accepted");
+        this.rejected = meterRegistry.counter("telegram.webhook.updates", "result", "rejected");
+        this.unauthorized = meterRegistry.counter("telegram.webhook.updates", "result", "unauthorized");
+        meterRegistry.gauge("telegram.webhook.queue.depth", executor, e -> e.getQueue().size());
+    }
+
+    @PostConstruct
+    public void registerWebhook() {
+        if (config.getUrl() == null || config.getUrl().isBlank()) {
+            log.warn("⚠️ Modo webhook sin telegram.webhook.url: no se registra en Telegram (solo pruebas locales)");
+            return;
+        }
+        String url = config.getUrl().replaceAll("/+$", "") + config.getPath();
+        try {
+            botService.execute(SetWebhook.builder()
+                    .url(url)
+                    .secretToken(config.getSecretToken())
+                    .maxConnections(config.getMaxConnections())
+                    .build());
+            log.info("✅ Webhook registrado en {}", url);
+        } catch (TelegramApiException e) {
+            log.error("❌ Error registrando webhook: {}", e.getMessage());
+            throw new IllegalStateException("No se pudo registrar el webhook", e);
+        }
+    }
+
+    @PostMapping("${telegram.webhook.path:/telegram/webhook}")
+    public ResponseEntity<Void> onUpdate(@RequestHeader(name = SECRET_HEADER, required = false) String token,
+                                         @RequestBody Update update) {
+        if (token == null || !MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8))) {
+            unauthorized.increment();
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    botService.onUpdateReceived(update);
+                } catch (RuntimeException e) {
+                    log.error("Error procesando update {}: {}", update.getUpdateId(), e.getMessage(), e);
+                }
+            });
+            accepted.increment();
+            return ResponseEntity.ok().build();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("⚠️ Cola de updates llena, Telegram reintentará el update {}", update.getUpdateId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.saul.botwallapop.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.saul.botwallapop.model.ProductConfig;
+
+class ProductsConfigTest {
+
+    @Test
+    void parseaTodasLasReglas() {
+        ProductConfig product = ProductsConfig.parseProduct(
+                " Nintendo Switch | 150,5 |desde=20|incluye=oled, consola|excluye=rota,,caja"
+                        + "|regex=(?i)v\\d|zona=40.4,-3.7,15|estado=new|envio=si|categoria=12900");
+
+        assertThat(product.getName()).isEqualTo("Nintendo Switch");
+        assertThat(product.getMinPrice()).isEqualTo(150.5);
+        assertThat(product.getPriceFrom()).isEqualTo(20);
+        assertThat(product.getRequiredKeywords()).containsExactly("oled", "consola");
+        assertThat(product.getExcludedKeywords()).containsExactly("rota", "caja");
+        assertThat(product.getTitlePattern()).isEqualTo("(?i)v\\d");
+        assertThat(product.getLatitude()).isEqualTo(40.4);
+        assertThat(product.getLongitude()).isEqualTo(-3.7);
+        assertThat(product.getRadiusKm()).isEqualTo(15);
+        assertThat(product.getConditions()).containsExactly("new");
+        assertThat(product.isShippingRequired()).isTrue();
+        assertThat(product.getCategoryIds()).containsExactly("12900");
+    }
+
+    @Test
+    void rechazaEspecificacionesInvalidas() {
+        for (String spec : List.of("switch", "|100", "switch|caro", "switch|100|color=rojo", "switch|100|incluye",
+                "switch|100|zona=40.4,-3.7", "switch|100|regex=[abc")) {
+            assertThatThrownBy(() -> ProductsConfig.parseProduct(spec))
+                    .as(spec)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void parseProductsDescartaLasLineasInvalidas() {
+        ProductsConfig config = new ProductsConfig();
+        config.setProducts(List.of("switch|100", "sin precio", "ps5|400|color=rojo", "xbox|300|envio=no"));
+
+        assertThat(config.parseProducts()).extracting(ProductConfig::getName).containsExactly("switch", "xbox");
+    }
+}
@@ -0,0 +1,111 @@
+package com.saul.botwallapop.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.saul.botwallapop.config.ProductsConfig;
+import com.saul.botwallapop.model.WallapopOffer;
+
+class OfferFilterTest {
+
+    private static final String SPEC = "consola|100|desde=20|envio=si|estado=new,as_good_as_new"
+            + "|zona=40.4168,-3.7038,10|incluye=switch|excluye=rota|regex=ol[e]d";
+
+    private final OfferListing listing = new OfferListing();
+
+    @Test
+    void rechazaPorLaPrimeraReglaEnOrdenDeCoste() {
+        OfferFilter filter = ProductsConfig.parseProduct(SPEC).getFilter();
+        WallapopOffer offer = offer("Consola rota", 500);
+        offer.setShippingAvailable(false);
+        offer.setCondition("has_given_it_all");
+        offer.setLatitude(41.3874); // Barcelona, fuera del radio
+        offer.setLongitude(2.1686);
+
+        assertThat(reject(filter, offer)).isEqualTo("precio");
+        offer.setPriceValue(50);
+        assertThat(reject(filter, offer)).isEqualTo("envio");
+        offer.setShippingAvailable(true);
+        assertThat(reject(filter, offer)).isEqualTo("estado");
+        offer.setCondition("AS_GOOD_AS_NEW");
+        assertThat(reject(filter, offer)).isEqualTo("distancia");
+        offer.setLatitude(40.45);
+        offer.setLongitude(-3.69);
+        assertThat(reject(filter, offer)).isEqualTo("palabras");
+        offer.setTitle("Consola Switch rota");
+        assertThat(reject(filter, offer)).isEqualTo("excluidas");
+        offer.setTitle("Consola Switch");
+        assertThat(reject(filter, offer)).isEqualTo("regex");
+        offer.setTitle("Consola Switch OLED");
+        assertThat(reject(filter, offer)).isNull();
+    }
+
+    @Test
+    void elPrecioMinimoTambienRechaza() {
+        OfferFilter filter = ProductsConfig.parseProduct("consola|100|desde=20").getFilter();
+        assertThat(reject(filter, offer("Consola", 10))).isEqualTo("precio");
+        assertThat(reject(filter, offer("Consola", 20))).isNull();
+        assertThat(reject(filter, offer("Consola", 100))).isNull();
+    }
+
+    @Test
+    void losDatosQueFaltanNoRechazan() {
+        OfferFilter filter = ProductsConfig.parseProduct(SPEC).getFilter();
+        // Sin coordenadas, estado ni datos de envío: solo se comprueban el precio y el título
+        assertThat(reject(filter, offer("Switch OLED", 50))).isNull();
+    }
+
+    @Test
+    void sinReglasAceptaTodo() {
+        assertThat(ProductsConfig.parseProduct("consola|0").getFilter()).isSameAs(OfferFilter.ACCEPT_ALL);
+    }
+
+    @Test
+    void laMismaConfiguracionDaLaMismaFirma() {
+        OfferFilter a = ProductsConfig.parseProduct("consola|100|estado=new,as_good_as_new|incluye=Switch").getFilter();
+        OfferFilter b = ProductsConfig.parseProduct("otra|100|incluye=switch|estado=as_good_as_new,new").getFilter();
+        assertThat(a.getSignature()).isEqualTo(b.getSignature());
+    }
+
+    @Test
+    void anyOfAceptaSiAlgunMiembroAcepta() {
+        OfferFilter barata = ProductsConfig.parseProduct("consola|50").getFilter();
+        OfferFilter nueva = ProductsConfig.parseProduct("consola|500|estado=new").getFilter();
+        OfferFilter grupo = OfferFilter.anyOf(List.of(barata, nueva));
+
+        WallapopOffer usada = offer("Consola", 200);
+        usada.setCondition("good");
+        assertThat(grupo.accepts(listing.reset(usada))).isFalse();
+        usada.setCondition("new");
+        assertThat(grupo.accepts(listing.reset(usada))).isTrue();
+    }
+
+    @Test
+    void requiringKeywordsExigeLaConsultaEnElTitulo() {
+        OfferFilter filter = OfferFilter.maxPrice(100).requiringKeywords(List.of("switch", "oled"));
+        assertThat(reject(filter, offer("Switch OLED", 50))).isNull();
+        assertThat(reject(filter, offer("Switch Lite", 50))).isEqualTo("consulta");
+        assertThat(reject(filter, offer("Switch OLED", 150))).isEqualTo("precio");
+        assertThat(OfferFilter.maxPrice(100).requiringKeywords(List.of()).getSignature())
+                .isEqualTo(OfferFilter.maxPrice(100).getSignature());
+    }
+
+    @Test
+    void laConsultaSeComparaSinTildes() {
+        OfferFilter filter = OfferFilter.maxPrice(100)
+                .requiringKeywords(SubscriptionIndex.tokens("Pokémon Escarlata"));
+        assertThat(reject(filter, offer("Juego POKÉMON escarlata", 30))).isNull();
+        assertThat(reject(filter, offer("Juego Pokemon Púrpura", 30))).isEqualTo("consulta");
+    }
+
+    private String reject(OfferFilter filter, WallapopOffer offer) {
+        return filter.rejectReason(listing.reset(offer));
+    }
+
+    private static WallapopOffer offer(String title, double price) {
+        return new WallapopOffer("1", title, price + " €", "https://es.wallapop.com/item/x", price);
+    }
+}
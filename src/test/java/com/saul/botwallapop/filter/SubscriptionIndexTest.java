@@ -0,0 +1,74 @@
+package com.saul.botwallapop.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.saul.botwallapop.config.ProductsConfig;
+import com.saul.botwallapop.model.Subscription;
+import com.saul.botwallapop.model.WallapopOffer;
+
+class SubscriptionIndexTest {
+
+    private final OfferListing listing = new OfferListing();
+
+    @Test
+    void casaCuandoEstanTodasLasPalabras() {
+        Subscription switchOled = subscription(1, "nintendo switch oled|300");
+        Subscription pokemon = subscription(2, "Pokémon Escarlata|60");
+        Subscription switchSola = subscription(3, "switch|300");
+        SubscriptionIndex index = SubscriptionIndex.build(List.of(switchOled, pokemon, switchSola));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(match(index, "Nintendo Switch OLED blanca", 250)).containsExactlyInAnyOrder(switchOled, switchSola);
+        assertThat(match(index, "Switch Lite", 100)).containsExactly(switchSola);
+        assertThat(match(index, "POKEMON escarlata (Switch)", 40)).containsExactlyInAnyOrder(pokemon, switchSola);
+        assertThat(match(index, "PS5 digital", 300)).isEmpty();
+    }
+
+    @Test
+    void comparaPalabrasEnterasYNoSubcadenas() {
+        SubscriptionIndex index = SubscriptionIndex.build(List.of(subscription(1, "ps5|500")));
+
+        assertThat(match(index, "Mando PS5-Pro", 50)).hasSize(1);
+        assertThat(match(index, "Mando PS55", 50)).isEmpty();
+    }
+
+    @Test
+    void aplicaLasReglasDeCadaSuscripcion() {
+        Subscription barata = subscription(1, "switch|150");
+        Subscription sinCaja = subscription(2, "switch|400|excluye=caja");
+        SubscriptionIndex index = SubscriptionIndex.build(List.of(barata, sinCaja));
+
+        assertThat(match(index, "Switch", 100)).containsExactlyInAnyOrder(barata, sinCaja);
+        assertThat(match(index, "Switch", 200)).containsExactly(sinCaja);
+        assertThat(match(index, "Switch solo caja", 100)).containsExactly(barata);
+    }
+
+    @Test
+    void ignoraSuscripcionesSinPalabras() {
+        SubscriptionIndex index = SubscriptionIndex.build(List.of(subscription(1, "¡¡!!|100")));
+
+        assertThat(index.size()).isZero();
+        assertThat(match(index, "Lo que sea", 10)).isEmpty();
+        assertThat(SubscriptionIndex.EMPTY.match("Switch", listing)).isEmpty();
+    }
+
+    @Test
+    void tokenizaSinTildesNiMayusculas() {
+        assertThat(SubscriptionIndex.tokens("Pokémon Z-A, ¡Edición Única!"))
+                .containsExactly("pokemon", "z", "a", "edicion", "unica");
+        assertThat(SubscriptionIndex.fold("Cámara CAÑÓN")).isEqualTo("camara canon");
+    }
+
+    private List<Subscription> match(SubscriptionIndex index, String title, double price) {
+        WallapopOffer offer = new WallapopOffer("1", title, price + " €", "https://es.wallapop.com/item/x", price);
+        return index.match(title, listing.reset(offer));
+    }
+
+    private static Subscription subscription(long id, String spec) {
+        return new Subscription(id, 1000 + id, spec, ProductsConfig.parseProduct(spec));
+    }
+}
@@ -0,0 +1,150 @@
+package com.saul.botwallapop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saul.botwallapop.config.SearchConfig;
+import com.saul.botwallapop.filter.OfferFilter;
+import com.saul.botwallapop.model.HighWaterMark;
+import com.saul.botwallapop.model.SearchParams;
+import com.saul.botwallapop.model.SearchResult;
+import com.saul.botwallapop.model.WallapopOffer;
+import com.saul.botwallapop.utils.HostPacer;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Paginación por cursor y corte por marca de agua contra un servidor local con
+ * dos páginas de resultados (a, b, c) → (d, e), de la más nueva a la más antigua.
+ */
+class HttpSearchBackendTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private SearchConfig config;
+    private HttpSearchBackend backend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", exchange -> {
+            requests.incrementAndGet();
+            String query = exchange.getRequestURI().getRawQuery();
+            String body = query.contains("next_page=p2")
+                    ? page(null, item("d", 400), item("e", 300))
+                    : page("p2", item("a", 900), item("b", 800), item("c", 700));
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        config = new SearchConfig();
+        config.setApiUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/search");
+        config.setWebUrl("https://es.wallapop.com");
+        backend = new HttpSearchBackend(new ObjectMapper(), config, new HostPacer(0, 0), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void sinMarcaLeeTodasLasPaginas() {
+        List<WallapopOffer> streamed = new ArrayList<>();
+        SearchResult result = backend.search("consola", SearchParams.NONE, OfferFilter.ACCEPT_ALL, null, streamed::addAll);
+
+        assertThat(result.getOffers()).extracting(WallapopOffer::getTitle)
+                .containsExactly("Anuncio a", "Anuncio b", "Anuncio c", "Anuncio d", "Anuncio e");
+        assertThat(streamed).hasSize(5);
+        assertThat(result.getPages()).isEqualTo(2);
+        assertThat(result.getNewest().getItemKey()).isEqualTo("a");
+        assertThat(result.getNewest().getTimestamp()).isEqualTo(900);
+        assertThat(result.getOffers().get(0).getUrl()).isEqualTo("https://es.wallapop.com/item/a");
+        assertThat(result.getOffers().get(0).getPriceValue()).isEqualTo(10.0);
+    }
+
+    @Test
+    void seParaAlLlegarALaClaveConocida() {
+        SearchResult result = backend.search("consola", SearchParams.NONE, OfferFilter.ACCEPT_ALL,
+                HighWaterMark.ofKeys(List.of("d")), offers -> {});
+
+        assertThat(result.getOffers()).extracting(WallapopOffer::getTitle)
+                .containsExactly("Anuncio a", "Anuncio b", "Anuncio c");
+        assertThat(result.getPages()).isEqualTo(2);
+        assertThat(result.getNewest().getItemKey()).isEqualTo("a");
+    }
+
+    @Test
+    void seParaPorMarcaDeTiempoSinPedirMasPaginas() {
+        SearchResult result = backend.search("consola", SearchParams.NONE, OfferFilter.ACCEPT_ALL,
+                new HighWaterMark("borrado", 800), offers -> {});
+
+        assertThat(result.getOffers()).extracting(WallapopOffer::getTitle).containsExactly("Anuncio a");
+        assertThat(result.getPages()).isEqualTo(1);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void sinNovedadesConservaLaMarcaAnterior() {
+        HighWaterMark since = new HighWaterMark("a", 900);
+        SearchResult result = backend.search("consola", SearchParams.NONE, OfferFilter.ACCEPT_ALL, since, offers -> {});
+
+        assertThat(result.getOffers()).isEmpty();
+        assertThat(result.getNewest().getItemKey()).isEqualTo("a");
+    }
+
+    @Test
+    void respetaElMaximoDePaginas() {
+        config.setMaxPages(1);
+        SearchResult result = backend.search("consola", SearchParams.NONE, OfferFilter.ACCEPT_ALL, null, offers -> {});
+
+        assertThat(result.getOffers()).hasSize(3);
+        assertThat(result.getPages()).isEqualTo(1);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void aplicaElFiltroSinCortarLaPaginacion() {
+        SearchResult result = backend.search("consola", SearchParams.NONE, OfferFilter.maxPrice(5), null, offers -> {});
+
+        assertThat(result.getOffers()).isEmpty();
+        assertThat(result.getPages()).isEqualTo(2);
+        assertThat(result.getNewest().getItemKey()).isEqualTo("a");
+    }
+
+    @Test
+    void unaRespuestaDistintaDe200EsUnError() {
+        status = 503;
+        assertThatThrownBy(() -> backend.search("consola", SearchParams.NONE, OfferFilter.ACCEPT_ALL, null, offers -> {}))
+                .isInstanceOf(SearchException.class)
+                .hasMessageContaining("503");
+    }
+
+    private static String page(String nextPage, String... items) {
+        return "{\"data\":{\"section\":{\"payload\":{\"items\":[" + String.join(",", items) + "]}}},"
+                + "\"meta\":{" + (nextPage != null ? "\"next_page\":\"" + nextPage + "\"" : "") + "}}";
+    }
+
+    private static String item(String slug, long modifiedAt) {
+        return "{\"id\":\"id-" + slug + "\",\"web_slug\":\"" + slug + "\",\"title\":\"Anuncio " + slug + "\","
+                + "\"price\":{\"amount\":10,\"currency\":\"EUR\"},\"modified_at\":" + modifiedAt + "}";
+    }
+}
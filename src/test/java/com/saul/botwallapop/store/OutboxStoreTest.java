@@ -0,0 +1,147 @@
+package com.saul.botwallapop.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.saul.botwallapop.config.StorageConfig;
+import com.saul.botwallapop.model.OutboundMessage;
+
+class OutboxStoreTest {
+
+    // Cabe un puñado de mensajes por segmento, para forzar el cambio de segmento
+    private static final int SEGMENT_BYTES = 512;
+
+    @TempDir
+    Path dataDir;
+
+    private OutboxStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void recuperaLosMensajesSinConfirmarAlReabrir() throws IOException {
+        store = open();
+        long first = store.append(message("uno"));
+        long second = store.append(message("dos"));
+        long third = store.append(message("tres"));
+        store.ack(second);
+        store.close();
+
+        store = open();
+        Map<Long, OutboundMessage> recovered = store.drainRecovered();
+        assertThat(recovered.keySet()).containsExactly(first, third);
+        assertThat(recovered.get(first).getText()).isEqualTo("uno");
+        assertThat(recovered.get(first).getChatId()).isEqualTo("-100");
+        assertThat(recovered.get(first).getOfferUrls()).containsExactly("https://es.wallapop.com/item/uno");
+        assertThat(store.pendingCount()).isEqualTo(2);
+        assertThat(store.drainRecovered()).isEmpty(); // solo se entregan una vez
+    }
+
+    @Test
+    void laSecuenciaContinuaTrasReabrir() throws IOException {
+        store = open();
+        long last = store.append(message("uno"));
+        store.ack(last);
+        store.close();
+
+        store = open();
+        assertThat(store.append(message("dos"))).isGreaterThan(last);
+    }
+
+    @Test
+    void recuperaYConfirmaEntreVariosSegmentos() throws IOException {
+        store = open();
+        long[] seqs = new long[20];
+        for (int i = 0; i < seqs.length; i++) seqs[i] = store.append(message("mensaje " + i));
+        assertThat(segments()).hasSizeGreaterThan(2);
+
+        // Confirmaciones escritas en segmentos posteriores a sus mensajes
+        for (int i = 0; i < seqs.length; i += 2) store.ack(seqs[i]);
+        store.close();
+
+        store = open();
+        Map<Long, OutboundMessage> recovered = store.drainRecovered();
+        assertThat(recovered).hasSize(10);
+        for (int i = 0; i < seqs.length; i++) {
+            if (i % 2 == 0) assertThat(recovered).doesNotContainKey(seqs[i]);
+            else assertThat(recovered.get(seqs[i]).getText()).isEqualTo("mensaje " + i);
+        }
+    }
+
+    @Test
+    void borraLosSegmentosAntiguosYaConfirmados() throws IOException {
+        store = open();
+        long[] seqs = new long[20];
+        for (int i = 0; i < seqs.length; i++) seqs[i] = store.append(message("mensaje " + i));
+        List<Path> before = segments();
+        assertThat(before).hasSizeGreaterThan(2);
+
+        // Con el primer mensaje sin confirmar no se borra nada aunque el resto esté confirmado
+        for (int i = 1; i < seqs.length; i++) store.ack(seqs[i]);
+        assertThat(segments()).contains(before.get(0));
+
+        store.ack(seqs[0]);
+        assertThat(store.pendingCount()).isZero();
+        assertThat(segments()).hasSize(1).doesNotContain(before.get(0));
+        store.close();
+
+        store = open();
+        assertThat(store.drainRecovered()).isEmpty();
+    }
+
+    @Test
+    void unRegistroAMediasNoImpideRecuperarLosAnteriores() throws IOException {
+        store = open();
+        long seq = store.append(message("uno"));
+        store.close();
+
+        // Simula un cierre brusco: basura tras el último registro completo
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        int end = 0;
+        while (end + 4 <= bytes.length && (bytes[end] | bytes[end + 1] | bytes[end + 2] | bytes[end + 3]) != 0) {
+            int length = ((bytes[end] & 0xff) << 24) | ((bytes[end + 1] & 0xff) << 16)
+                    | ((bytes[end + 2] & 0xff) << 8) | (bytes[end + 3] & 0xff);
+            end += 4 + 4 + 1 + 8 + length - 1;
+        }
+        bytes[end + 3] = 50;
+        bytes[end + 8] = 1;
+        Files.write(segment, bytes);
+
+        store = open();
+        assertThat(store.drainRecovered().keySet()).containsExactly(seq);
+    }
+
+    private OutboxStore open() throws IOException {
+        StorageConfig config = new StorageConfig();
+        config.setDataDir(dataDir.toString());
+        config.setOutboxSegmentBytes(SEGMENT_BYTES);
+        OutboxStore outbox = new OutboxStore(config);
+        outbox.load();
+        return outbox;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dataDir.resolve("outbox"))) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static OutboundMessage message(String text) {
+        return new OutboundMessage("-100", text, "Markdown", false,
+                List.of("https://es.wallapop.com/item/" + text.replace(' ', '-')));
+    }
+}
@@ -0,0 +1,36 @@
+package com.saul.botwallapop.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class PriceParserTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "1.234,56 €|1234.56",
+            "40,50€|40.5",
+            "2.000 €|2000",
+            "12.99|12.99",
+            "12.9|12.9",
+            "1.234.567 €|1234567",
+            "150 €|150",
+            "1 234,50 €|1234.5",
+            "Precio: 75 €|75",
+            "3,5 € (negociable, 2 unidades)|3.5",
+    })
+    void parseaFormatosEspanoles(String text, double expected) {
+        assertThat(PriceParser.parse(text)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "null", value = {
+            "null",
+            "''",
+            "Gratis",
+    })
+    void sinCifrasDevuelveCero(String text) {
+        assertThat(PriceParser.parse(text)).isZero();
+    }
+}